@@ -0,0 +1,149 @@
+package com.example.usermanagement.reactive;
+
+import java.time.Duration;
+import java.util.Map;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.reactive.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.config.annotation.method.configuration.EnableReactiveMethodSecurity;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsPasswordService;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.logout.HttpStatusReturningServerLogoutSuccessHandler;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.security.web.server.context.WebSessionServerSecurityContextRepository;
+import org.springframework.security.web.server.csrf.CookieServerCsrfTokenRepository;
+import org.springframework.security.web.server.csrf.ServerCsrfTokenRequestAttributeHandler;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Reactive counterpart of the servlet application's {@code Config}: the same URL rules,
+ * HTTP Basic with the security context kept in the web session, and a cookie CSRF token.
+ * Password hashing never runs on an event-loop thread; it goes to {@link #passwordScheduler}.
+ */
+@Configuration
+@EnableWebFluxSecurity
+@EnableReactiveMethodSecurity
+public class ReactiveConfig {
+
+    @Bean
+    public SecurityWebFilterChain filterChain(
+        ServerHttpSecurity http,
+        ReactiveAuthenticationManager authenticationManager,
+        ServerSecurityContextRepository securityContextRepository) {
+
+        http
+            .logout(logout -> logout
+                .logoutUrl("/home/logout")
+                .logoutSuccessHandler(new HttpStatusReturningServerLogoutSuccessHandler(HttpStatus.NO_CONTENT)))
+            .authorizeExchange(authorizeExchange -> authorizeExchange
+                .pathMatchers("/home/admin/**").hasRole("ADMIN")
+                .matchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .matchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
+                .pathMatchers("/home/sign-up").permitAll()
+                .pathMatchers(HttpMethod.GET, "/home/login").permitAll()
+                .pathMatchers("/home/forget-password").permitAll()
+                .pathMatchers("/home/reset-password").permitAll()
+                .anyExchange().authenticated())
+            .authenticationManager(authenticationManager)
+            .securityContextRepository(securityContextRepository)
+            // Basic credentials are checked per request; only POST /home/login starts a session.
+            .httpBasic(httpBasic -> httpBasic
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance()))
+            .csrf(csrf -> csrf
+                .csrfTokenRepository(CookieServerCsrfTokenRepository.withHttpOnlyFalse())
+                .csrfTokenRequestHandler(new ServerCsrfTokenRequestAttributeHandler()));
+
+        return http.build();
+    }
+
+    @Bean
+    public ServerSecurityContextRepository securityContextRepository() {
+        return new WebSessionServerSecurityContextRepository();
+    }
+
+    @Bean
+    public ReactiveAuthenticationManager authenticationManager(
+        ReactiveUserDetailsService userDetailsService,
+        ReactiveUserDetailsPasswordService userDetailsPasswordService,
+        PasswordEncoder passwordEncoder,
+        Scheduler passwordScheduler) {
+
+        var authenticationManager = new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        authenticationManager.setPasswordEncoder(passwordEncoder);
+        authenticationManager.setUserDetailsPasswordService(userDetailsPasswordService);
+        authenticationManager.setScheduler(passwordScheduler);
+        return authenticationManager;
+    }
+
+    @Bean
+    public ReactiveUserDetailsService userDetailsService(ReactiveUserRepository reactiveUserRepository) {
+        return reactiveUserRepository::findUserDetails;
+    }
+
+    @Bean
+    public ReactiveUserDetailsPasswordService userDetailsPasswordService(ReactiveUserRepository reactiveUserRepository) {
+        return reactiveUserRepository::updatePassword;
+    }
+
+    /**
+     * Bounded so a burst of logins queues up instead of spawning a thread per request; once
+     * the queue is full further hashing work is rejected rather than exhausting memory.
+     */
+    @Bean(destroyMethod = "dispose")
+    public Scheduler passwordScheduler(
+        @Value("${app.password.scheduler.threads:0}") int threads,
+        @Value("${app.password.scheduler.queue-capacity:10000}") int queueCapacity) {
+
+        int threadCap = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return Schedulers.newBoundedElastic(threadCap, queueCapacity, "password-hashing");
+    }
+
+    /**
+     * Built like the servlet application's encoder from the same {@code app.password.*}
+     * settings, including the startup calibration, so both stacks write hashes of the same
+     * cost and upgrade the same outdated ones.
+     */
+    @Bean
+    public PasswordEncoder passwordEncoder(
+        @Value("${app.password.encoder:bcrypt}") String encodingId,
+        @Value("${app.password.target-verification-time:250ms}") Duration targetVerificationTime,
+        @Value("${app.password.bcrypt.min-strength:10}") int bcryptMinStrength,
+        @Value("${app.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+        @Value("${app.password.argon2.min-iterations:2}") int argon2MinIterations,
+        @Value("${app.password.pbkdf2.iterations:310000}") int pbkdf2Iterations) {
+
+        var calibration = new PasswordEncoderCalibration(targetVerificationTime);
+        var bcrypt = encodingId.equals("bcrypt")
+            ? calibration.bcrypt(bcryptMinStrength)
+            : new BCryptPasswordEncoder(bcryptMinStrength);
+        var argon2 = encodingId.equals("argon2")
+            ? calibration.argon2(argon2MemoryKib, argon2MinIterations)
+            : PasswordEncoderCalibration.argon2Encoder(argon2MemoryKib, argon2MinIterations);
+        var pbkdf2 = new Pbkdf2PasswordEncoder(
+            "", 16, pbkdf2Iterations, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+
+        Map<String, PasswordEncoder> encoders = Map.of(
+            "bcrypt", bcrypt,
+            "argon2", argon2,
+            "pbkdf2", pbkdf2);
+
+        var delegatingPasswordEncoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return delegatingPasswordEncoder;
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.usermanagement.reactive;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UriComponentsBuilder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Issues single-use reset tokens held in memory and mails the reset link. Sending goes
+ * through the blocking {@link JavaMailSender}, so it runs on the bounded elastic scheduler and
+ * the request completes without waiting for the SMTP round trip.
+ *
+ * <p>Each token remembers the password hash the account had when it was issued and may only
+ * replace that hash. A password change or a deleted and recreated account, made by this
+ * application or any other writer of {@code users}, therefore voids it. Tokens of a user this
+ * application changes or deletes are also dropped straight away.
+ */
+@Service
+@Slf4j
+public class ReactivePasswordResetService {
+
+    private final JavaMailSender mailSender;
+
+    public record ResetToken(String username, String passwordHash) {}
+
+    private final Cache<String, ResetToken> tokens;
+
+    // Usernames that were sent a reset link within the coalescing window.
+    private final Cache<String, Boolean> recentRequests;
+
+    public ReactivePasswordResetService(
+        JavaMailSender mailSender,
+        @Value("${app.password-reset.token-time-to-live:10h}") Duration tokenTimeToLive,
+        @Value("${app.password-reset.coalesce-window:1m}") Duration coalesceWindow,
+        @Value("${app.password-reset.coalesce-maximum-size:100000}") long maximumSize) {
+
+        this.mailSender = mailSender;
+        tokens = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(tokenTimeToLive)
+            .build();
+        recentRequests = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(coalesceWindow)
+            .build();
+    }
+
+    public Mono<Void> handleForgetPasswordRequest(
+        UserProfile user,
+        String passwordHash,
+        UriComponentsBuilder uriComponentsBuilder) {
+
+        if (recentRequests.asMap().putIfAbsent(user.username(), Boolean.TRUE) != null) {
+            log.debug("Reset link already sent to {} within the coalescing window", user.username());
+            return Mono.empty();
+        }
+
+        String tokenValue = generateTokenValue();
+        tokens.put(tokenValue, new ResetToken(user.username(), passwordHash));
+        URI uri = uriComponentsBuilder
+            .path("/home/reset-password")
+            .queryParam("token", tokenValue)
+            .build()
+            .toUri();
+
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(user.email());
+        message.setSubject("Reset Password");
+        message.setText("Click the link to reset your password: " + uri);
+
+        Mono.fromRunnable(() -> mailSender.send(message))
+            .subscribeOn(Schedulers.boundedElastic())
+            .subscribe(
+                null,
+                e -> {
+                    // Let the user retry straight away if nothing was sent.
+                    recentRequests.invalidate(user.username());
+                    log.warn("Could not send reset email to {}", user.username(), e);
+                });
+        return Mono.empty();
+    }
+
+    public String generateTokenValue() {
+        return UUID.randomUUID().toString();
+    }
+
+    /**
+     * Removes the token and emits it, or completes empty if the token is unknown or expired.
+     */
+    public Mono<ResetToken> consume(String tokenValue) {
+        return Mono.justOrEmpty(tokens.asMap().remove(tokenValue));
+    }
+
+    public void removeByUsername(String username) {
+        tokens.asMap().values().removeIf(token -> token.username().equals(username));
+    }
+
+    public void clear() {
+        tokens.invalidateAll();
+        recentRequests.invalidateAll();
+    }
+}
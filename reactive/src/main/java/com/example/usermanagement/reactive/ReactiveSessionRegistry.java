@@ -0,0 +1,44 @@
+package com.example.usermanagement.reactive;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.WebSession;
+import org.springframework.web.server.session.DefaultWebSessionManager;
+import org.springframework.web.server.session.WebSessionManager;
+import org.springframework.web.server.session.WebSessionStore;
+import reactor.core.publisher.Mono;
+
+/**
+ * Reactive counterpart of the servlet application's {@code maximumSessions(1)}: each login
+ * registers its session for the user and removes the session of the user's previous login
+ * from the store, so requests on that session are no longer authenticated. Web sessions live
+ * in this instance's in-memory store, so the registry is per instance as well. It keeps one
+ * session id per user who logged in; the id of a session that has since expired or logged out
+ * is only replaced on the user's next login, and removing it then is a no-op.
+ */
+@Component
+public class ReactiveSessionRegistry {
+
+    private final Map<String, String> sessionIds = new ConcurrentHashMap<>();
+
+    private final WebSessionStore sessionStore;
+
+    public ReactiveSessionRegistry(WebSessionManager webSessionManager) {
+        if (!(webSessionManager instanceof DefaultWebSessionManager defaultWebSessionManager)) {
+            throw new IllegalStateException("Session limit needs a DefaultWebSessionManager, found "
+                + webSessionManager.getClass().getName());
+        }
+        this.sessionStore = defaultWebSessionManager.getSessionStore();
+    }
+
+    /**
+     * Call once the security context is saved, since saving it changes the session id.
+     */
+    public Mono<Void> register(String username, WebSession session) {
+        String previous = sessionIds.put(username, session.getId());
+        return previous == null || previous.equals(session.getId())
+            ? Mono.empty()
+            : sessionStore.removeSession(previous);
+    }
+}
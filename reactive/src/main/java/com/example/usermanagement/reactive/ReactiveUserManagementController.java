@@ -0,0 +1,274 @@
+package com.example.usermanagement.reactive;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.server.context.ServerSecurityContextRepository;
+import org.springframework.security.web.server.csrf.CsrfToken;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebSession;
+import org.springframework.web.util.UriComponentsBuilder;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Non-blocking implementation of the servlet application's {@code /home} API. Request and
+ * response shapes and status codes are the same; hashing runs on the password scheduler.
+ */
+@RestController
+@RequestMapping("/home")
+@Slf4j
+public class ReactiveUserManagementController {
+
+    private static final int MAX_PAGE_SIZE = 1000;
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Autowired
+    private ReactivePasswordResetService passwordResetService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private Scheduler passwordScheduler;
+
+    @Autowired
+    private ServerSecurityContextRepository securityContextRepository;
+
+    @Autowired
+    private ReactiveSessionRegistry sessionRegistry;
+
+    @GetMapping("/admin/all-users")
+    public Mono<ResponseEntity<List<UserProfile>>> getAllUsers(
+        @RequestParam(name = "after", defaultValue = "") String after,
+        @RequestParam(name = "size", defaultValue = "100") int size,
+        UriComponentsBuilder uriComponentsBuilder) {
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        return reactiveUserRepository.findProfilesAfter(after, pageSize + 1)
+            .collectList()
+            .map(users -> {
+                if (users.size() <= pageSize) {
+                    return ResponseEntity.ok(users);
+                }
+
+                List<UserProfile> page = users.subList(0, pageSize);
+                URI next = uriComponentsBuilder
+                    .path("/home/admin/all-users")
+                    .queryParam("after", page.get(page.size() - 1).username())
+                    .queryParam("size", pageSize)
+                    .build()
+                    .toUri();
+
+                return ResponseEntity.ok()
+                    .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+                    .body(page);
+            });
+    }
+
+    @PostMapping("/login")
+    public Mono<ResponseEntity<Void>> logIn(
+        @AuthenticationPrincipal UserDetails userDetails,
+        UriComponentsBuilder uriComponentsBuilder,
+        ServerWebExchange exchange) {
+
+        var uri = uriComponentsBuilder
+            .path("/home/{username}/profile")
+            .buildAndExpand(userDetails.getUsername())
+            .toUri();
+
+        return ReactiveSecurityContextHolder.getContext()
+            .flatMap(securityContext -> securityContextRepository.save(exchange, securityContext))
+            .then(exchange.getSession())
+            .flatMap(session -> sessionRegistry.register(userDetails.getUsername(), session))
+            .then(Mono.just(ResponseEntity.status(HttpStatus.FOUND).location(uri).build()));
+    }
+
+    @PostMapping("/sign-up")
+    public Mono<ResponseEntity<String>> signUp(
+        @RequestBody HashMap<String, String> requestBody,
+        UriComponentsBuilder uriComponentsBuilder) {
+
+        if (!requestBody.containsKey("username") || (!requestBody.containsKey("password"))) {
+            return Mono.just(ResponseEntity.badRequest().body("Username or password not provided."));
+        }
+
+        String username = requestBody.get("username");
+        URI uri = uriComponentsBuilder
+            .path("/home/{username}/profile")
+            .buildAndExpand(username)
+            .toUri();
+
+        return encode(requestBody.get("password"))
+            .flatMap(password -> reactiveUserRepository.insertUser(
+                username,
+                password,
+                normalizeEmail(requestBody.get("email")),
+                List.of("ROLE_USER")))
+            .map(inserted -> inserted
+                ? ResponseEntity.created(uri).<String>build()
+                : ResponseEntity.badRequest().body("Username already exists."))
+            .onErrorResume(EmailAlreadyInUseException.class,
+                e -> Mono.just(ResponseEntity.badRequest().body("Email already in use.")));
+    }
+
+    @GetMapping("/{username}/profile")
+    @PreAuthorize("#username == authentication.principal.username")
+    public Mono<ResponseEntity<UserProfile>> getUserProfile(@PathVariable String username) {
+        return reactiveUserRepository.findProfileByUsername(username)
+            .map(ResponseEntity::ok)
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @PatchMapping("/{username}/update")
+    @PreAuthorize("#username == authentication.principal.username")
+    public Mono<ResponseEntity<UserProfile>> updateUserProfile(
+        @PathVariable String username,
+        @RequestBody HashMap<String, String> requestBody,
+        ServerWebExchange exchange) {
+
+        Mono<Optional<String>> password = requestBody.containsKey("password")
+            ? encode(requestBody.get("password")).map(Optional::of)
+            : Mono.just(Optional.empty());
+        Mono<Map<String, String>> changes = password.map(encodedPassword -> {
+            Map<String, String> columns = new LinkedHashMap<>();
+            encodedPassword.ifPresent(value -> columns.put("password", value));
+            if (requestBody.containsKey("email")) {
+                columns.put("email", normalizeEmail(requestBody.get("email")));
+            }
+            return columns;
+        });
+
+        Mono<String> email = requestBody.containsKey("email")
+            ? Mono.just(normalizeEmail(requestBody.get("email")))
+            : reactiveUserRepository.findProfileByUsername(username).map(UserProfile::email);
+
+        return email
+            .flatMap(newEmail -> changes
+                .flatMap(columns -> columns.isEmpty()
+                    ? Mono.just(1L)
+                    : reactiveUserRepository.updateColumns(username, columns))
+                .flatMap(updated -> {
+                    if (updated == 0) {
+                        return Mono.just(ResponseEntity.notFound().<UserProfile>build());
+                    }
+                    Mono<Void> logout = Mono.empty();
+                    if (requestBody.containsKey("password")) {
+                        passwordResetService.removeByUsername(username);
+                        logout = exchange.getSession().flatMap(WebSession::invalidate);
+                    }
+                    return logout.thenReturn(ResponseEntity.ok(new UserProfile(username, newEmail)));
+                }))
+            .onErrorResume(EmailAlreadyInUseException.class,
+                e -> Mono.just(ResponseEntity.badRequest().build()))
+            .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{username}/delete")
+    @PreAuthorize("#username == authentication.principal.username")
+    public Mono<ResponseEntity<Void>> deleteUser(
+        @PathVariable String username,
+        ServerWebExchange exchange) {
+
+        return reactiveUserRepository.deleteAccount(username)
+            .flatMap(deleted -> {
+                if (deleted == 0) {
+                    return Mono.just(ResponseEntity.notFound().<Void>build());
+                }
+                log.debug("Deleted user {}", username);
+                passwordResetService.removeByUsername(username);
+                return exchange.getSession()
+                    .flatMap(WebSession::invalidate)
+                    .thenReturn(ResponseEntity.noContent().<Void>build());
+            });
+    }
+
+    @RequestMapping(
+        path = {
+            "/sign-up", "/login", "/logout",
+            "forget-password", "reset-password",
+            "/{username}/update", "/{username}/delete",
+        },
+        method = RequestMethod.GET)
+    public Mono<ResponseEntity<Void>> getCsrfToken(ServerWebExchange exchange) {
+        Mono<CsrfToken> csrfToken = exchange.getAttribute(CsrfToken.class.getName());
+        return csrfToken == null
+            ? Mono.just(ResponseEntity.ok().build())
+            : csrfToken.thenReturn(ResponseEntity.ok().build());
+    }
+
+    @PostMapping("/forget-password")
+    public Mono<ResponseEntity<String>> forgetPassword(
+        @RequestBody HashMap<String, String> requestBody,
+        UriComponentsBuilder uriComponentsBuilder) {
+
+        if (requestBody.get("email") == null) {
+            return Mono.just(ResponseEntity.badRequest().build());
+        }
+
+        String email = normalizeEmail(requestBody.get("email"));
+        return reactiveUserRepository.findProfileByEmail(email)
+            .flatMap(user -> reactiveUserRepository.findPassword(user.username())
+                .flatMap(passwordHash -> passwordResetService
+                    .handleForgetPasswordRequest(user, passwordHash, uriComponentsBuilder)
+                    .thenReturn(ResponseEntity.ok().body("Reset link sent. Please check your email."))))
+            .switchIfEmpty(Mono.fromSupplier(() -> {
+                log.debug("No user exists with email {}", email);
+                return ResponseEntity.badRequest().build();
+            }));
+    }
+
+    @PostMapping("/reset-password")
+    public Mono<ResponseEntity<String>> resetPassword(
+        @RequestParam("token") String tokenValue,
+        @RequestBody HashMap<String, String> requestBody) {
+
+        return passwordResetService.consume(tokenValue)
+            .flatMap(token -> encode(requestBody.get("password"))
+                .flatMap(password -> reactiveUserRepository
+                    .replacePassword(token.username(), token.passwordHash(), password))
+                .map(updated -> {
+                    if (updated == 0) {
+                        return ResponseEntity.badRequest().<String>build();
+                    }
+                    passwordResetService.removeByUsername(token.username());
+                    return ResponseEntity.ok().body("Password reset.");
+                }))
+            .defaultIfEmpty(ResponseEntity.badRequest().build());
+    }
+
+    private Mono<String> encode(String rawPassword) {
+        return Mono.fromCallable(() -> passwordEncoder.encode(rawPassword))
+            .subscribeOn(passwordScheduler);
+    }
+
+    private static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,251 @@
+package com.example.usermanagement.reactive;
+
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking access to the {@code users} and {@code authorities} tables shared with the
+ * servlet application, written as plain SQL over R2DBC. Inserts, updates and deletions also
+ * record a row in {@code user_changes}, which the servlet application polls to evict its caches
+ * and to add new usernames and emails to its existence filter. Password changes and
+ * deletions also revoke the user's access tokens in {@code user_token_revocations}. Both happen
+ * in the same transaction as the write.
+ */
+@Repository
+public class ReactiveUserRepository {
+
+    static final String EMAIL_INDEX = "idx_users_email";
+
+    private static final Set<String> UPDATABLE_COLUMNS = Set.of("password", "email");
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private TransactionalOperator transactionalOperator;
+
+    public Mono<UserDetails> findUserDetails(String username) {
+        Mono<User.UserBuilder> user = databaseClient
+            .sql("SELECT username, password, enabled FROM users WHERE username = :username")
+            .bind("username", username)
+            .map(row -> User.withUsername(row.get("username", String.class))
+                .password(row.get("password", String.class))
+                .disabled(!row.get("enabled", Boolean.class)))
+            .one();
+
+        Mono<String[]> authorities = databaseClient
+            .sql("SELECT authority FROM authorities WHERE username = :username")
+            .bind("username", username)
+            .map(row -> row.get("authority", String.class))
+            .all()
+            .collectList()
+            .map(names -> names.toArray(String[]::new));
+
+        return user.zipWith(authorities, (builder, names) -> builder.authorities(names).build());
+    }
+
+    public Mono<UserProfile> findProfileByUsername(String username) {
+        return databaseClient
+            .sql("SELECT username, email FROM users WHERE username = :username")
+            .bind("username", username)
+            .map(row -> new UserProfile(row.get("username", String.class), row.get("email", String.class)))
+            .one();
+    }
+
+    public Mono<UserProfile> findProfileByEmail(String email) {
+        return databaseClient
+            .sql("SELECT username, email FROM users WHERE email = :email")
+            .bind("email", email)
+            .map(row -> new UserProfile(row.get("username", String.class), row.get("email", String.class)))
+            .one();
+    }
+
+    public Mono<String> findPassword(String username) {
+        return databaseClient
+            .sql("SELECT password FROM users WHERE username = :username")
+            .bind("username", username)
+            .map(row -> row.get("password", String.class))
+            .one();
+    }
+
+    public Flux<UserProfile> findProfilesAfter(String username, int limit) {
+        return databaseClient
+            .sql("SELECT username, email FROM users WHERE username > :username ORDER BY username LIMIT :limit")
+            .bind("username", username)
+            .bind("limit", limit)
+            .map(row -> new UserProfile(row.get("username", String.class), row.get("email", String.class)))
+            .all();
+    }
+
+    /**
+     * Inserts the user and its authorities in one transaction. Emits {@code false} if the
+     * username is taken and fails with {@link EmailAlreadyInUseException} if the email is.
+     */
+    public Mono<Boolean> insertUser(
+        String username,
+        String password,
+        String email,
+        Collection<String> authorities) {
+
+        var insertUser = databaseClient
+            .sql("INSERT INTO users (username, password, enabled, email) VALUES (:username, :password, :enabled, :email)")
+            .bind("username", username)
+            .bind("password", password)
+            .bind("enabled", true);
+        insertUser = email == null ? insertUser.bindNull("email", String.class) : insertUser.bind("email", email);
+
+        Mono<Long> insertAuthorities = Flux.fromIterable(authorities)
+            .concatMap(authority -> databaseClient
+                .sql("INSERT INTO authorities (username, authority) VALUES (:username, :authority)")
+                .bind("username", username)
+                .bind("authority", authority)
+                .fetch()
+                .rowsUpdated())
+            .reduce(0L, Long::sum);
+
+        return insertUser.fetch().rowsUpdated()
+            .then(insertAuthorities)
+            .then(recordChange(username, "CREATED"))
+            .thenReturn(true)
+            .as(transactionalOperator::transactional)
+            .onErrorResume(DuplicateKeyException.class, e -> isDuplicateEmail(e)
+                ? Mono.error(new EmailAlreadyInUseException(e))
+                : Mono.just(false));
+    }
+
+    public Mono<Long> updateColumns(String username, Map<String, ?> changes) {
+        StringBuilder assignments = new StringBuilder();
+        changes.keySet().forEach(column -> {
+            if (!UPDATABLE_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Column " + column + " cannot be updated");
+            }
+            if (!assignments.isEmpty()) {
+                assignments.append(", ");
+            }
+            assignments.append(column).append(" = :").append(column);
+        });
+
+        var update = databaseClient
+            .sql("UPDATE users SET " + assignments + " WHERE username = :username")
+            .bind("username", username);
+        for (Map.Entry<String, ?> change : changes.entrySet()) {
+            update = change.getValue() == null
+                ? update.bindNull(change.getKey(), String.class)
+                : update.bind(change.getKey(), change.getValue());
+        }
+
+        String change = changes.containsKey("password") ? "PASSWORD_CHANGED" : "UPDATED";
+        return update.fetch().rowsUpdated()
+            .flatMap(updated -> updated == 0
+                ? Mono.just(updated)
+                : recordChange(username, change).thenReturn(updated))
+            .as(transactionalOperator::transactional)
+            .onErrorMap(
+                e -> e instanceof DuplicateKeyException duplicate && isDuplicateEmail(duplicate),
+                e -> new EmailAlreadyInUseException(e));
+    }
+
+    /**
+     * Replaces the password only if it is still {@code expectedPassword}, so a change made
+     * since the caller read it, including deleting and recreating the account, wins.
+     */
+    public Mono<Long> replacePassword(String username, String expectedPassword, String newPassword) {
+        return compareAndSetPassword(username, expectedPassword, newPassword, "PASSWORD_CHANGED");
+    }
+
+    /**
+     * Stores the rehash of an outdated hash found at login, only over the hash the login
+     * verified. The password itself is unchanged, so it is recorded as an update and revokes
+     * nothing, but a reset link issued for the old hash no longer applies.
+     */
+    public Mono<UserDetails> updatePassword(UserDetails user, String newPassword) {
+        return compareAndSetPassword(user.getUsername(), user.getPassword(), newPassword, "UPDATED")
+            .thenReturn(User.withUserDetails(user).password(newPassword).build());
+    }
+
+    private Mono<Long> compareAndSetPassword(String username, String expectedPassword, String newPassword, String change) {
+        return databaseClient
+            .sql("UPDATE users SET password = :password WHERE username = :username AND password = :expected")
+            .bind("password", newPassword)
+            .bind("username", username)
+            .bind("expected", expectedPassword)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(updated -> updated == 0
+                ? Mono.just(updated)
+                : recordChange(username, change).thenReturn(updated))
+            .as(transactionalOperator::transactional);
+    }
+
+    public Mono<Long> deleteAccount(String username) {
+        return databaseClient
+            .sql("DELETE FROM password_reset_token WHERE user_username = :username")
+            .bind("username", username)
+            .fetch()
+            .rowsUpdated()
+            .then(databaseClient
+                .sql("DELETE FROM authorities WHERE username = :username")
+                .bind("username", username)
+                .fetch()
+                .rowsUpdated())
+            .then(databaseClient
+                .sql("DELETE FROM users WHERE username = :username")
+                .bind("username", username)
+                .fetch()
+                .rowsUpdated())
+            .flatMap(deleted -> deleted == 0
+                ? Mono.just(deleted)
+                : recordChange(username, "DELETED").thenReturn(deleted))
+            .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Void> recordChange(String username, String change) {
+        long now = System.currentTimeMillis();
+        Mono<Void> recorded = databaseClient
+            .sql("INSERT INTO user_changes (username, change_type, changed_at) VALUES (:username, :change, :now)")
+            .bind("username", username)
+            .bind("change", change)
+            .bind("now", now)
+            .then();
+        return change.equals("PASSWORD_CHANGED") || change.equals("DELETED")
+            ? recorded.then(revokeTokens(username, now))
+            : recorded;
+    }
+
+    private Mono<Void> revokeTokens(String username, long notBefore) {
+        Mono<Long> raise = databaseClient
+            .sql("UPDATE user_token_revocations SET not_before = GREATEST(not_before, :notBefore)"
+                + " WHERE username = :username")
+            .bind("notBefore", notBefore)
+            .bind("username", username)
+            .fetch()
+            .rowsUpdated();
+
+        return raise
+            .flatMap(raised -> raised > 0
+                ? Mono.empty()
+                : databaseClient
+                    .sql("INSERT INTO user_token_revocations (username, not_before) VALUES (:username, :notBefore)")
+                    .bind("username", username)
+                    .bind("notBefore", notBefore)
+                    .then()
+                    .onErrorResume(DuplicateKeyException.class, e -> raise.then()))
+            .then();
+    }
+
+    private static boolean isDuplicateEmail(DuplicateKeyException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(EMAIL_INDEX);
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.usermanagement.reactive;
+
+/**
+ * Public view of a user as returned by the profile and listing endpoints.
+ */
+public record UserProfile(String username, String email) {}
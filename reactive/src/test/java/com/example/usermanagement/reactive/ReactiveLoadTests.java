@@ -0,0 +1,125 @@
+package com.example.usermanagement.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Replays the same authenticated profile traffic as the servlet application's
+ * {@code ThreadModeLoadTests} against the reactive stack, at that test's concurrency and at a
+ * much higher one. Run both with {@code ./gradlew loadTest :reactive:loadTest} and compare the
+ * logged lines.
+ */
+@Tag("load")
+@Slf4j
+class ReactiveLoadTests {
+
+    private static final int REQUESTS = 5_000;
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+        .encodeToString("defaultUser:defaultUserPassword".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void replayProfileTrafficOnReactiveStack() throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ReactiveUserManagementApplication.class)
+            .run(
+                "--spring.config.additional-location=classpath:application-test.properties",
+                "--spring.r2dbc.url=r2dbc:h2:mem:///reactiveloaddb;DB_CLOSE_DELAY=-1",
+                "--server.port=0",
+                "--logging.level.com.example.usermanagement=INFO",
+                "--logging.level.org.springframework.security=INFO")) {
+
+            context.getBean(ReactiveUserRepository.class)
+                .insertUser(
+                    "defaultUser",
+                    context.getBean(PasswordEncoder.class).encode("defaultUserPassword"),
+                    "defaultuser@domain.com",
+                    List.of("ROLE_USER"))
+                .block();
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI profile = URI.create("http://localhost:" + port + "/home/defaultUser/profile");
+
+            LoadResult sameConcurrency = replay(profile, 400);
+            LoadResult highConcurrency = replay(profile, 4_000);
+
+            log.info("reactive, 400 clients:   {}", sameConcurrency);
+            log.info("reactive, 4000 clients:  {}", highConcurrency);
+
+            assertThat(sameConcurrency.errors()).isZero();
+            assertThat(highConcurrency.errors()).isZero();
+        }
+    }
+
+    private LoadResult replay(URI uri, int concurrency) throws InterruptedException {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(REQUESTS));
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(REQUESTS);
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", AUTHORIZATION).GET().build();
+        HttpClient httpClient = HttpClient.newHttpClient();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            long started = System.nanoTime();
+            for (int i = 0; i < concurrency; i++) {
+                clients.execute(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - sent);
+                    }
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(5, TimeUnit.MINUTES);
+            long elapsed = System.nanoTime() - started;
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return new LoadResult(
+                sorted.size() * 1e9 / elapsed,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                errors.get());
+        }
+    }
+
+    private static double percentile(List<Long> sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(index, 0)) / 1e6;
+    }
+
+    private record LoadResult(double requestsPerSecond, double p50Millis, double p99Millis, int errors) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d errors",
+                requestsPerSecond, p50Millis, p99Millis, errors);
+        }
+    }
+}
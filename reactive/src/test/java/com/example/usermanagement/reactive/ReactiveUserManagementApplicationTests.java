@@ -0,0 +1,497 @@
+package com.example.usermanagement.reactive;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.csrf;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.AutoConfigureWebTestClient;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+
+/**
+ * The servlet application's {@code UserManagementApplicationTests} scenarios for sign-up,
+ * login, profile, update, delete and password reset, replayed against the reactive stack.
+ */
+@SpringBootTest
+@AutoConfigureWebTestClient
+@TestPropertySource(locations = "classpath:application-test.properties")
+class ReactiveUserManagementApplicationTests {
+
+    private static final Pattern RESET_TOKEN = Pattern.compile("token=([0-9a-f-]+)");
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+        .withPerMethodLifecycle(false);
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @Autowired
+    private DatabaseClient databaseClient;
+
+    @Autowired
+    private ReactiveUserRepository reactiveUserRepository;
+
+    @Autowired
+    private ReactivePasswordResetService passwordResetService;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @BeforeEach
+    void resetUserData() throws Exception {
+        databaseClient.sql("DELETE FROM authorities").then()
+            .then(databaseClient.sql("DELETE FROM users").then())
+            .block();
+        passwordResetService.clear();
+        greenMail.purgeEmailFromAllMailboxes();
+
+        reactiveUserRepository.insertUser(
+            "admin", passwordEncoder.encode("admin-password"), "admin@domain.com", List.of("ROLE_ADMIN", "ROLE_USER"))
+            .block();
+        reactiveUserRepository.insertUser(
+            "user", passwordEncoder.encode("user-password"), "user@domain.com", List.of("ROLE_USER"))
+            .block();
+    }
+
+    @Test
+    void shouldGetUnauthorizedForAnonymousUser() {
+        webTestClient
+            .get().uri("/home")
+            .exchange()
+            .expectStatus().isUnauthorized()
+            .expectHeader().exists("WWW-Authenticate");
+    }
+
+    @Test
+    void shouldGetNotFoundForNonExistEndpoint() {
+        webTestClient
+            .get().uri("/home/non-exist-endpoint")
+            .headers(headers -> headers.setBasicAuth("user", "user-password"))
+            .exchange()
+            .expectStatus().isNotFound();
+    }
+
+    @Test
+    void shouldGetForbiddenForUserAccessingAdminEndpoint() {
+        webTestClient
+            .get().uri("/home/admin/all-users")
+            .headers(headers -> headers.setBasicAuth("user", "user-password"))
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    @Test
+    void shouldPageAllUsersByUsernameCursor() {
+        webTestClient
+            .get().uri("/home/admin/all-users?size=1")
+            .headers(headers -> headers.setBasicAuth("admin", "admin-password"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().valueMatches("Link", "<.*/home/admin/all-users\\?after=admin&size=1>; rel=\"next\"")
+            .expectBody().json("""
+                [{"username": "admin", "email": "admin@domain.com"}]
+                """, true);
+
+        webTestClient
+            .get().uri("/home/admin/all-users?after=admin&size=1")
+            .headers(headers -> headers.setBasicAuth("admin", "admin-password"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectHeader().doesNotExist("Link")
+            .expectBody().json("""
+                [{"username": "user", "email": "user@domain.com"}]
+                """, true);
+    }
+
+    @Test
+    void shouldGetOkForAccesingOwnResource() {
+        webTestClient
+            .get().uri("/home/user/profile")
+            .headers(headers -> headers.setBasicAuth("user", "user-password"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().json("""
+                {"username": "user", "email": "user@domain.com"}
+                """);
+    }
+
+    @Test
+    void shouldGetForbiddenForAccessingOtherUserEndpoint() {
+        webTestClient
+            .get().uri("/home/dummy/profile")
+            .headers(headers -> headers.setBasicAuth("admin", "admin-password"))
+            .exchange()
+            .expectStatus().isForbidden();
+    }
+
+    @Test
+    void shouldGetBadRequestForCreatingExistingUser() {
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/sign-up")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"username": "user", "email": "other@domain.com", "password": "user-password"}
+                """)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(String.class).isEqualTo("Username already exists.");
+    }
+
+    @Test
+    void shouldRejectSignUpWithEmailTakenInDifferentCase() {
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/sign-up")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"username": "newUser", "email": "User@Domain.com", "password": "newUser-password"}
+                """)
+            .exchange()
+            .expectStatus().isBadRequest()
+            .expectBody(String.class).isEqualTo("Email already in use.");
+
+        assertThat(reactiveUserRepository.findProfileByUsername("newUser").block()).isNull();
+    }
+
+    @Test
+    void shouldGetCreatedAndRedirectForCreatingNewUser() {
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/sign-up")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"username": "newUser", "email": "newUser@domain.com", "password": "newUser-password"}
+                """)
+            .exchange()
+            .expectStatus().isCreated()
+            .expectHeader().valueMatches("Location", ".*/home/newUser/profile");
+
+        webTestClient
+            .get().uri("/home/newUser/profile")
+            .headers(headers -> headers.setBasicAuth("newUser", "newUser-password"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().json("""
+                {"username": "newUser", "email": "newuser@domain.com"}
+                """);
+    }
+
+    @Test
+    void shouldGetOkandRedirectedAfterLogin() {
+        ResponseCookie session = logIn("user", "user-password");
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .cookie(session.getName(), session.getValue())
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().json("""
+                {"username": "user", "email": "user@domain.com"}
+                """);
+
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/logout")
+            .cookie(session.getName(), session.getValue())
+            .exchange()
+            .expectStatus().isNoContent();
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .cookie(session.getName(), session.getValue())
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
+    /**
+     * Unlike the servlet application, whose test sees no cookie on these GETs, the handler here
+     * subscribes to the deferred token, so the cookie repository writes {@code XSRF-TOKEN}.
+     */
+    @Test
+    void shouldGetOkForFetchingSignUpEndpoint() {
+        webTestClient
+            .get().uri("/home/sign-up")
+            .exchange()
+            .expectStatus().isOk()
+            .expectCookie().exists("XSRF-TOKEN");
+    }
+
+    @Test
+    void shouldGetOkForFetchingLogInEndpoint() {
+        webTestClient
+            .get().uri("/home/login")
+            .exchange()
+            .expectStatus().isOk()
+            .expectCookie().exists("XSRF-TOKEN");
+    }
+
+    /**
+     * The servlet application answers the expired session with its expiry message and a 200;
+     * here the first session is simply gone, so the request is unauthenticated and gets a 401.
+     */
+    @Test
+    void shouldGetUnauthorizedForFirstSessionAfterSecondLogin() {
+        ResponseCookie firstSession = logIn("user", "user-password");
+        ResponseCookie secondSession = logIn("user", "user-password");
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .cookie(firstSession.getName(), firstSession.getValue())
+            .exchange()
+            .expectStatus().isUnauthorized();
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .cookie(secondSession.getName(), secondSession.getValue())
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldGetOkForUpdatingProfileAndMustLogInAgain() {
+        ResponseCookie session = logIn("user", "user-password");
+
+        webTestClient
+            .mutateWith(csrf())
+            .patch().uri("/home/user/update")
+            .cookie(session.getName(), session.getValue())
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"password": "updatedPassword", "email": "updatedUser@domain.com"}
+                """)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().json("""
+                {"username": "user", "email": "updateduser@domain.com"}
+                """);
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .cookie(session.getName(), session.getValue())
+            .exchange()
+            .expectStatus().isUnauthorized();
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .headers(headers -> headers.setBasicAuth("user", "updatedPassword"))
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody().json("""
+                {"username": "user", "email": "updateduser@domain.com"}
+                """);
+    }
+
+    @Test
+    void shouldDeleteUserProfileAndReturnNoContent() {
+        ResponseCookie session = logIn("user", "user-password");
+
+        webTestClient
+            .mutateWith(csrf())
+            .delete().uri("/home/user/delete")
+            .cookie(session.getName(), session.getValue())
+            .exchange()
+            .expectStatus().isNoContent();
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .cookie(session.getName(), session.getValue())
+            .exchange()
+            .expectStatus().isUnauthorized();
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .headers(headers -> headers.setBasicAuth("user", "user-password"))
+            .exchange()
+            .expectStatus().isUnauthorized();
+    }
+
+    @Test
+    void shouldResetPasswordAfterRequestingForgetPassword() throws Exception {
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/forget-password")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"email": "User@domain.com"}
+                """)
+            .exchange()
+            .expectStatus().isOk();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        MimeMessage resetEmail = greenMail.getReceivedMessages()[0];
+        assertThat(resetEmail.getAllRecipients()[0].toString()).isEqualTo("user@domain.com");
+        Matcher token = RESET_TOKEN.matcher((String) resetEmail.getContent());
+        assertThat(token.find()).isTrue();
+
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/reset-password?token={token}", token.group(1))
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"password": "updatedPassword"}
+                """)
+            .exchange()
+            .expectStatus().isOk();
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .headers(headers -> headers.setBasicAuth("user", "updatedPassword"))
+            .exchange()
+            .expectStatus().isOk();
+
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/reset-password?token={token}", token.group(1))
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"password": "otherPassword"}
+                """)
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRejectResetTokenIssuedBeforeAccountWasDeleted() throws Exception {
+        String token = requestResetToken();
+
+        webTestClient
+            .mutateWith(csrf())
+            .delete().uri("/home/user/delete")
+            .headers(headers -> headers.setBasicAuth("user", "user-password"))
+            .exchange()
+            .expectStatus().isNoContent();
+        reactiveUserRepository.insertUser(
+            "user", passwordEncoder.encode("new-owner-password"), "user@domain.com", List.of("ROLE_USER"))
+            .block();
+
+        resetPassword(token).expectStatus().isBadRequest();
+    }
+
+    @Test
+    void shouldRejectResetTokenAfterAccountWasRecreatedByAnotherWriter() throws Exception {
+        String token = requestResetToken();
+
+        // The servlet application, or another instance, deletes and recreates the account.
+        reactiveUserRepository.deleteAccount("user").block();
+        reactiveUserRepository.insertUser(
+            "user", passwordEncoder.encode("new-owner-password"), "user@domain.com", List.of("ROLE_USER"))
+            .block();
+
+        resetPassword(token).expectStatus().isBadRequest();
+
+        webTestClient
+            .get().uri("/home/user/profile")
+            .headers(headers -> headers.setBasicAuth("user", "new-owner-password"))
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    @Test
+    void shouldRecordPasswordChangeForServletCachesAndRevokeTokens() {
+        webTestClient
+            .mutateWith(csrf())
+            .patch().uri("/home/user/update")
+            .headers(headers -> headers.setBasicAuth("user", "user-password"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"password": "updatedPassword"}
+                """)
+            .exchange()
+            .expectStatus().isOk();
+
+        assertThat(databaseClient
+            .sql("SELECT change_type FROM user_changes WHERE username = 'user' ORDER BY id DESC LIMIT 1")
+            .map(row -> row.get("change_type", String.class))
+            .one()
+            .block())
+            .isEqualTo("PASSWORD_CHANGED");
+        assertThat(databaseClient
+            .sql("SELECT COUNT(*) AS revocations FROM user_token_revocations WHERE username = 'user'")
+            .map(row -> row.get("revocations", Long.class))
+            .one()
+            .block())
+            .isEqualTo(1);
+    }
+
+    @Test
+    void shouldRehashOutdatedPasswordOnLogin() {
+        reactiveUserRepository.insertUser(
+            "legacy", new BCryptPasswordEncoder(4).encode("legacy-password"), "legacy@domain.com", List.of("ROLE_USER"))
+            .block();
+
+        webTestClient
+            .get().uri("/home/legacy/profile")
+            .headers(headers -> headers.setBasicAuth("legacy", "legacy-password"))
+            .exchange()
+            .expectStatus().isOk();
+
+        String rehashed = reactiveUserRepository.findPassword("legacy").block();
+        assertThat(rehashed).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.upgradeEncoding(rehashed)).isFalse();
+
+        webTestClient
+            .get().uri("/home/legacy/profile")
+            .headers(headers -> headers.setBasicAuth("legacy", "legacy-password"))
+            .exchange()
+            .expectStatus().isOk();
+    }
+
+    private String requestResetToken() throws Exception {
+        webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/forget-password")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"email": "user@domain.com"}
+                """)
+            .exchange()
+            .expectStatus().isOk();
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        Matcher token = RESET_TOKEN.matcher((String) greenMail.getReceivedMessages()[0].getContent());
+        assertThat(token.find()).isTrue();
+        return token.group(1);
+    }
+
+    private WebTestClient.ResponseSpec resetPassword(String token) {
+        return webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/reset-password?token={token}", token)
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("""
+                {"password": "attackerPassword"}
+                """)
+            .exchange();
+    }
+
+    private ResponseCookie logIn(String username, String password) {
+        ResponseCookie session = webTestClient
+            .mutateWith(csrf())
+            .post().uri("/home/login")
+            .headers(headers -> headers.setBasicAuth(username, password))
+            .exchange()
+            .expectStatus().isFound()
+            .expectHeader().valueMatches("Location", ".*/home/" + username + "/profile")
+            .returnResult(Void.class)
+            .getResponseCookies()
+            .getFirst("SESSION");
+        assertThat(session).isNotNull();
+        return session;
+    }
+}
@@ -0,0 +1 @@
+bash ./gradlew jmh
@@ -0,0 +1,3 @@
+#!/bin/bash
+# Usage: script/load.sh [--users=500] [--concurrency=50] [--profile-reads=10] [--updates=2] [--password-resets=1]
+bash ./gradlew lifecycleLoad -PloadArgs="$*"
@@ -1 +1 @@
-bash ./gradlew bootRun
+bash ./gradlew bootRun --args='--spring.profiles.active=seed'
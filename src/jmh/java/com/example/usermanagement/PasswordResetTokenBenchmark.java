@@ -0,0 +1,43 @@
+package com.example.usermanagement;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class PasswordResetTokenBenchmark {
+
+    private PasswordResetService passwordResetService;
+
+    private User user;
+
+    private PasswordResetToken token;
+
+    @Setup
+    public void setUp() {
+        passwordResetService = new PasswordResetService(Duration.ofMinutes(1), 1);
+
+        user = new User();
+        user.setUsername("defaultUser");
+        user.setEmail("defaultUser@domain.com");
+        token = passwordResetService.generateToken(user);
+    }
+
+    @Benchmark
+    public PasswordResetToken generateToken() {
+        return passwordResetService.generateToken(user);
+    }
+
+    @Benchmark
+    public boolean isTokenExpired() {
+        return passwordResetService.isTokenExpired(token);
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.usermanagement;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * End-to-end {@code findByUsername} through Spring Data and Hibernate against an embedded H2
+ * database seeded by {@link DatabaseInitializer}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UserLookupBenchmark {
+
+    private ConfigurableApplicationContext context;
+
+    private UserManagementRepository userManagementRepository;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserManagementApplication.class)
+            .run(
+                "--server.port=0",
+                "--spring.profiles.active=seed",
+                "--spring.datasource.url=jdbc:h2:mem:jmh;DB_CLOSE_DELAY=-1",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.banner-mode=off",
+                "--logging.level.root=WARN",
+                "--logging.level.com.example.usermanagement=WARN",
+                "--logging.level.org.springframework.security=WARN",
+                "--logging.level.org.springframework.security.web=WARN",
+                "--logging.level.org.springframework.security.web.FilterChainProxy=WARN");
+        userManagementRepository = context.getBean(UserManagementRepository.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User findExistingUser() {
+        return userManagementRepository.findByUsername("defaultUser");
+    }
+
+    @Benchmark
+    public User findMissingUser() {
+        return userManagementRepository.findByUsername("missingUser");
+    }
+}
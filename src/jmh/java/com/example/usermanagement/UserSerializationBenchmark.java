@@ -0,0 +1,63 @@
+package com.example.usermanagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+/**
+ * Serialization of {@link UserProfile} as returned by the profile endpoint and by one page of the
+ * user listing, using an {@link ObjectMapper} configured the way Spring MVC configures it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class UserSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    private ObjectWriter profileWriter;
+
+    private ObjectWriter pageWriter;
+
+    private UserProfile profile;
+
+    private List<UserProfile> page;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        profileWriter = objectMapper.writerFor(UserProfile.class);
+        pageWriter = objectMapper.writerFor(objectMapper.getTypeFactory().constructCollectionType(List.class, UserProfile.class));
+
+        profile = newProfile(0);
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            page.add(newProfile(i));
+        }
+    }
+
+    @Benchmark
+    public byte[] serializeProfile() throws JsonProcessingException {
+        return profileWriter.writeValueAsBytes(profile);
+    }
+
+    @Benchmark
+    public byte[] serializePage() throws JsonProcessingException {
+        return pageWriter.writeValueAsBytes(page);
+    }
+
+    private static UserProfile newProfile(int i) {
+        return new UserProfile("user" + i, "user" + i + "@domain.com");
+    }
+}
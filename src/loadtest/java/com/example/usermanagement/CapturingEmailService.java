@@ -0,0 +1,30 @@
+package com.example.usermanagement;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Stands in for {@link EmailService} during load runs: nothing is queued or sent, the last
+ * message body per recipient is kept so the generator can follow reset links.
+ */
+public class CapturingEmailService extends EmailService {
+
+    private final ConcurrentMap<String, String> lastMessageByRecipient = new ConcurrentHashMap<>();
+
+    @Override
+    public void start() {
+    }
+
+    @Override
+    public void stop() {
+    }
+
+    @Override
+    public void sendSimpleEmail(String toEmail, String subject, String message) {
+        lastMessageByRecipient.put(toEmail, message);
+    }
+
+    public String takeLastMessage(String toEmail) {
+        return lastMessageByRecipient.remove(toEmail);
+    }
+}
@@ -0,0 +1,357 @@
+package com.example.usermanagement;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Boots the application on an embedded H2 database and drives complete user lifecycles
+ * through its HTTP API: sign-up, login, profile reads, email updates, forget and reset
+ * password, and deletion. Each lifecycle runs on its own virtual thread and at most
+ * {@code --concurrency} run at once. Results per endpoint are written as JSON.
+ *
+ * <p>Options, all {@code --name=value}: {@code users} (lifecycles, default 500),
+ * {@code concurrency} (default 50), {@code profile-reads}, {@code updates} and
+ * {@code password-resets} (repetitions per lifecycle, defaults 10, 2 and 1) and
+ * {@code output}. Any {@code --spring.*} or {@code --app.*} option is passed to the
+ * application, for example {@code --app.password.target-verification-time=250ms} to measure
+ * with production hashing cost.
+ */
+public class LifecycleLoadGenerator {
+
+    private static final Pattern RESET_TOKEN = Pattern.compile("token=([0-9a-f-]+)");
+
+    private static final List<String> APPLICATION_DEFAULTS = List.of(
+        "--server.port=0",
+        "--spring.datasource.url=jdbc:h2:mem:lifecycleload;DB_CLOSE_DELAY=-1",
+        "--spring.datasource.driver-class-name=org.h2.Driver",
+        "--spring.datasource.username=sa",
+        "--spring.datasource.password=",
+        "--spring.datasource.hikari.maximum-pool-size=20",
+        "--spring.jpa.show-sql=false",
+        "--spring.mail.username=",
+        "--spring.mail.password=",
+        "--logging.level.root=WARN",
+        "--logging.level.com.example.usermanagement=WARN",
+        "--logging.level.org.springframework.security=WARN",
+        "--logging.level.org.springframework.security.web=WARN",
+        "--logging.level.org.springframework.security.web.FilterChainProxy=WARN",
+        "--app.password.bcrypt.min-strength=4",
+        "--app.password.target-verification-time=1ms",
+        "--app.password-reset.coalesce-window=1ms",
+        "--app.rate-limit.per-client.burst=1000000000",
+        "--app.rate-limit.per-target.burst=1000000000");
+
+    private final Map<String, String> options;
+
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+
+    private final AtomicInteger missingResetEmails = new AtomicInteger();
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .build();
+
+    private CapturingEmailService emailService;
+
+    private URI baseUri;
+
+    LifecycleLoadGenerator(Map<String, String> options) {
+        this.options = options;
+        for (String endpoint : List.of(
+            "sign-up", "login", "profile", "update", "forget-password", "reset-password", "delete")) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        List<String> applicationArgs = new ArrayList<>(APPLICATION_DEFAULTS);
+        for (String arg : args) {
+            if (arg.startsWith("--spring.") || arg.startsWith("--app.") || arg.startsWith("--logging.")) {
+                applicationArgs.add(arg);
+            }
+            else if (arg.startsWith("--") && arg.contains("=")) {
+                options.put(arg.substring(2, arg.indexOf('=')), arg.substring(arg.indexOf('=') + 1));
+            }
+            else {
+                throw new IllegalArgumentException("Unrecognised argument " + arg);
+            }
+        }
+
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+            UserManagementApplication.class, StubbedEmailConfig.class)
+            .run(applicationArgs.toArray(String[]::new))) {
+
+            LifecycleLoadGenerator generator = new LifecycleLoadGenerator(options);
+            generator.emailService = context.getBean(CapturingEmailService.class);
+            generator.baseUri = URI.create(
+                "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort());
+            generator.run();
+        }
+    }
+
+    private void run() throws Exception {
+        int users = intOption("users", 500);
+        int concurrency = intOption("concurrency", 50);
+        Semaphore permits = new Semaphore(concurrency);
+        AtomicInteger failedLifecycles = new AtomicInteger();
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+
+        long started = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < users; i++) {
+                permits.acquire();
+                String username = "load-" + runId + "-" + i;
+                executor.execute(() -> {
+                    try {
+                        if (!lifecycle(username)) {
+                            failedLifecycles.incrementAndGet();
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                });
+            }
+            executor.shutdown();
+            executor.awaitTermination(1, TimeUnit.HOURS);
+        }
+        double elapsedSeconds = (System.nanoTime() - started) / 1e9;
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("users", users);
+        report.put("concurrency", concurrency);
+        report.put("profileReadsPerUser", intOption("profile-reads", 10));
+        report.put("updatesPerUser", intOption("updates", 2));
+        report.put("passwordResetsPerUser", intOption("password-resets", 1));
+        report.put("elapsedSeconds", elapsedSeconds);
+        report.put("failedLifecycles", failedLifecycles.get());
+        // Not a request of its own, so kept out of the per-endpoint error rates.
+        report.put("missingResetEmails", missingResetEmails.get());
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> endpoints.put(endpoint, endpointStats.summarize(elapsedSeconds)));
+        report.put("endpoints", endpoints);
+
+        ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+        String json = objectMapper.writeValueAsString(report);
+        System.out.println(json);
+
+        String output = options.get("output");
+        if (output != null) {
+            Path path = Path.of(output);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            Files.writeString(path, json);
+        }
+    }
+
+    /**
+     * Runs one user from sign-up to deletion, stopping at the first step that fails.
+     */
+    private boolean lifecycle(String username) {
+        String csrfToken = UUID.randomUUID().toString();
+        String email = username + "@load.test";
+        String password = "password-" + username;
+
+        if (send("sign-up", 201, post("/home/sign-up", csrfToken, null,
+            "{\"username\":\"" + username + "\",\"email\":\"" + email + "\",\"password\":\"" + password + "\"}")) == null) {
+            return false;
+        }
+
+        HttpResponse<String> login = send("login", 302, post("/home/login", csrfToken, null, null)
+            .header("Authorization", basic(username, password)));
+        String sessionCookie = login == null ? null : sessionCookie(login);
+        if (sessionCookie == null) {
+            return false;
+        }
+
+        for (int i = 0; i < intOption("profile-reads", 10); i++) {
+            if (send("profile", 200, request("/home/" + username + "/profile", csrfToken, sessionCookie).GET()) == null) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < intOption("updates", 2); i++) {
+            email = username + "+" + i + "@load.test";
+            if (send("update", 200, request("/home/" + username + "/update", csrfToken, sessionCookie)
+                .header("Content-Type", "application/json")
+                .method("PATCH", HttpRequest.BodyPublishers.ofString("{\"email\":\"" + email + "\"}"))) == null) {
+                return false;
+            }
+        }
+
+        for (int i = 0; i < intOption("password-resets", 1); i++) {
+            if (send("forget-password", 200, post("/home/forget-password", csrfToken, null,
+                "{\"email\":\"" + email + "\"}")) == null) {
+                return false;
+            }
+
+            String message = emailService.takeLastMessage(email);
+            Matcher token = message == null ? null : RESET_TOKEN.matcher(message);
+            if (token == null || !token.find()) {
+                missingResetEmails.incrementAndGet();
+                return false;
+            }
+
+            password = "reset-" + i + "-" + username;
+            if (send("reset-password", 200, post("/home/reset-password?token=" + token.group(1), csrfToken, null,
+                "{\"password\":\"" + password + "\"}")) == null) {
+                return false;
+            }
+        }
+
+        return send("delete", 204, request("/home/" + username + "/delete", csrfToken, null)
+            .header("Authorization", basic(username, password))
+            .DELETE()) != null;
+    }
+
+    private HttpRequest.Builder request(String path, String csrfToken, String sessionCookie) {
+        // The CSRF cookie and header only have to agree, so each user mints its own token.
+        String cookies = "XSRF-TOKEN=" + csrfToken + (sessionCookie == null ? "" : "; " + sessionCookie);
+        return HttpRequest.newBuilder(baseUri.resolve(path))
+            .header("Cookie", cookies)
+            .header("X-XSRF-TOKEN", csrfToken);
+    }
+
+    private HttpRequest.Builder post(String path, String csrfToken, String sessionCookie, String json) {
+        HttpRequest.Builder builder = request(path, csrfToken, sessionCookie);
+        if (json == null) {
+            return builder.POST(HttpRequest.BodyPublishers.noBody());
+        }
+        return builder
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json));
+    }
+
+    /**
+     * Sends the request and records it against {@code endpoint}. Returns {@code null} when the
+     * request failed or answered with anything other than {@code expectedStatus}.
+     */
+    private HttpResponse<String> send(String endpoint, int expectedStatus, HttpRequest.Builder request) {
+        EndpointStats endpointStats = stats.get(endpoint);
+        long sent = System.nanoTime();
+        try {
+            HttpResponse<String> response = httpClient.send(request.build(), HttpResponse.BodyHandlers.ofString());
+            endpointStats.record(System.nanoTime() - sent, response.statusCode(), response.statusCode() == expectedStatus);
+            return response.statusCode() == expectedStatus ? response : null;
+        } catch (IOException e) {
+            endpointStats.record(System.nanoTime() - sent, -1, false);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private static String sessionCookie(HttpResponse<?> response) {
+        for (String setCookie : response.headers().allValues("Set-Cookie")) {
+            if (setCookie.startsWith("JSESSIONID=")) {
+                return setCookie.substring(0, setCookie.indexOf(';') < 0 ? setCookie.length() : setCookie.indexOf(';'));
+            }
+        }
+        return null;
+    }
+
+    private static String basic(String username, String password) {
+        return "Basic " + Base64.getEncoder()
+            .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private int intOption(String name, int defaultValue) {
+        String value = options.get(name);
+        return value == null ? defaultValue : Integer.parseInt(value);
+    }
+
+    @Configuration
+    static class StubbedEmailConfig {
+
+        @Bean
+        @Primary
+        CapturingEmailService capturingEmailService() {
+            return new CapturingEmailService();
+        }
+    }
+
+    /**
+     * Latencies and outcomes for one endpoint. Samples are kept in full; a run is bounded by
+     * its lifecycle count, so memory stays proportional to the requests actually made.
+     */
+    private static class EndpointStats {
+
+        private long[] latencies = new long[1024];
+
+        private int count;
+
+        private int errors;
+
+        private final ConcurrentMap<Integer, AtomicInteger> statuses = new ConcurrentHashMap<>();
+
+        synchronized void record(long latencyNanos, int status, boolean ok) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = latencyNanos;
+            if (!ok) {
+                errors++;
+            }
+            statuses.computeIfAbsent(status, key -> new AtomicInteger()).incrementAndGet();
+        }
+
+        synchronized Map<String, Object> summarize(double elapsedSeconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("errorRate", count == 0 ? 0.0 : (double) errors / count);
+            summary.put("throughputPerSecond", count / elapsedSeconds);
+            summary.put("p50Millis", percentile(sorted, 0.50));
+            summary.put("p90Millis", percentile(sorted, 0.90));
+            summary.put("p99Millis", percentile(sorted, 0.99));
+            summary.put("maxMillis", count == 0 ? 0.0 : sorted[count - 1] / 1e6);
+            Map<String, Integer> statusCounts = new LinkedHashMap<>();
+            statuses.forEach((status, statusCount) -> statusCounts.put(String.valueOf(status), statusCount.get()));
+            summary.put("statuses", statusCounts);
+            return summary;
+        }
+
+        private static double percentile(long[] sortedNanos, double percentile) {
+            if (sortedNanos.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(percentile * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(index, 0)] / 1e6;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.example.logging;
 
 import org.springframework.boot.ansi.AnsiColor;
 import org.springframework.boot.ansi.AnsiElement;
+import org.springframework.boot.ansi.AnsiOutput;
 import org.springframework.boot.logging.logback.ColorConverter;
 
 import ch.qos.logback.classic.Level;
@@ -9,8 +10,15 @@ import ch.qos.logback.classic.spi.ILoggingEvent;
 
 public class CustomColorConverter extends ColorConverter {
 
+    private static final boolean ATTACHED_TO_TERMINAL = System.console() != null;
+
     @Override
     protected String transform(ILoggingEvent event, String in) {
+        // Escape codes only help a terminal; skip building them for files and pipes.
+        if (!ATTACHED_TO_TERMINAL && AnsiOutput.getEnabled() != AnsiOutput.Enabled.ALWAYS) {
+            return in;
+        }
+
         AnsiElement element = null;
         if (event.getLevel() == Level.INFO) {
             element = AnsiColor.GREEN;
@@ -0,0 +1,83 @@
+package com.example.usermanagement;
+
+import java.security.Principal;
+import java.util.Date;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.AuthenticatedPrincipal;
+import org.springframework.security.core.session.SessionDestroyedEvent;
+import org.springframework.security.core.session.SessionIdChangedEvent;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetails;
+
+/**
+ * Base for the {@link SessionRegistry} implementations behind {@code maximumSessions}.
+ * Sessions are keyed by username rather than by principal object, so the registry never
+ * retains a {@code UserDetails} and two instances agree on who owns a session.
+ */
+public abstract class AbstractSessionRegistry implements SessionRegistry {
+
+    /**
+     * Marks a session as expired in the backing store, so every instance sees it.
+     */
+    protected abstract void expire(String sessionId);
+
+    protected SessionInformation sessionInformation(
+        String username,
+        String sessionId,
+        Date lastRequest,
+        boolean expired) {
+
+        var information = new RegisteredSessionInformation(username, sessionId, lastRequest);
+        if (expired) {
+            information.markExpired();
+        }
+        return information;
+    }
+
+    protected static String principalName(Object principal) {
+        if (principal instanceof UserDetails userDetails) {
+            return userDetails.getUsername();
+        }
+        if (principal instanceof AuthenticatedPrincipal authenticatedPrincipal) {
+            return authenticatedPrincipal.getName();
+        }
+        if (principal instanceof Principal javaPrincipal) {
+            return javaPrincipal.getName();
+        }
+        return principal.toString();
+    }
+
+    @EventListener
+    public void onSessionDestroyed(SessionDestroyedEvent event) {
+        removeSessionInformation(event.getId());
+    }
+
+    @EventListener
+    public void onSessionIdChanged(SessionIdChangedEvent event) {
+        SessionInformation information = getSessionInformation(event.getOldSessionId());
+        if (information != null) {
+            removeSessionInformation(event.getOldSessionId());
+            registerNewSession(event.getNewSessionId(), information.getPrincipal());
+        }
+    }
+
+    private class RegisteredSessionInformation extends SessionInformation {
+
+        private static final long serialVersionUID = 1L;
+
+        RegisteredSessionInformation(String username, String sessionId, Date lastRequest) {
+            super(username, sessionId, lastRequest);
+        }
+
+        void markExpired() {
+            super.expireNow();
+        }
+
+        @Override
+        public void expireNow() {
+            super.expireNow();
+            expire(getSessionId());
+        }
+    }
+}
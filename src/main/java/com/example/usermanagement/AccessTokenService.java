@@ -0,0 +1,190 @@
+package com.example.usermanagement;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.List;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import com.example.usermanagement.UserChangedEvent.Change;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Issues and verifies HMAC-SHA256 signed access tokens of the form
+ * {@code base64url(username \n issuedAt \n expiresAt \n authorities) . base64url(signature)}.
+ * Verification needs no session. Tokens issued for a user before their password changed or
+ * their account was deleted are rejected through a per-user not-before time kept in
+ * {@link TokenRevocationRepository}, so a revocation on one instance applies on all of them.
+ * Each instance reads those times through a short cache, so another instance may accept a
+ * revoked token for up to {@code app.auth.token.revocation.cache-time-to-live} after the
+ * change. Rows are purged once they are older than the token time-to-live.
+ *
+ * <p>All instances behind a load balancer must share {@code app.auth.token.secret}; when it
+ * is left empty a random key is generated and tokens are only valid on this instance.
+ */
+@Component
+@ConditionalOnProperty(name = "app.auth.mode", havingValue = "token")
+@Slf4j
+public class AccessTokenService {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final SecretKeySpec key;
+
+    private final Duration timeToLive;
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    private final Cache<String, Long> notBefore;
+
+    public AccessTokenService(
+        @Value("${app.auth.token.secret:}") String secret,
+        @Value("${app.auth.token.time-to-live:15m}") Duration timeToLive,
+        @Value("${app.auth.token.revocation.maximum-size:100000}") long revocationMaximumSize,
+        @Value("${app.auth.token.revocation.cache-time-to-live:5s}") Duration revocationCacheTimeToLive,
+        TokenRevocationRepository tokenRevocationRepository,
+        MeterRegistry meterRegistry) {
+
+        byte[] secretBytes;
+        if (secret.isEmpty()) {
+            log.warn("No app.auth.token.secret configured, access tokens are only valid on this instance");
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+        }
+        else {
+            secretBytes = Base64.getDecoder().decode(secret);
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.tokenRevocationRepository = tokenRevocationRepository;
+
+        notBefore = Caffeine.newBuilder()
+            .maximumSize(revocationMaximumSize)
+            .expireAfterWrite(revocationCacheTimeToLive)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, notBefore, "auth.token.revocations");
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public String issue(UserDetails userDetails) {
+        long issuedAt = System.currentTimeMillis();
+        String payload = String.join("\n",
+            userDetails.getUsername(),
+            Long.toString(issuedAt),
+            Long.toString(issuedAt + timeToLive.toMillis()),
+            RoleSet.of(userDetails.getAuthorities()).toString());
+
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    /**
+     * Returns an authenticated token for a valid access token, or {@code null} when the token
+     * is malformed, tampered with, expired or revoked.
+     */
+    public Authentication verify(String token) {
+        int separator = token.indexOf('.');
+        if (separator <= 0) {
+            return null;
+        }
+
+        byte[] payloadBytes;
+        byte[] signature;
+        try {
+            payloadBytes = DECODER.decode(token.substring(0, separator));
+            signature = DECODER.decode(token.substring(separator + 1));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+
+        if (!MessageDigest.isEqual(signature, sign(payloadBytes))) {
+            return null;
+        }
+
+        String[] claims = new String(payloadBytes, StandardCharsets.UTF_8).split("\n", -1);
+        if (claims.length != 4) {
+            return null;
+        }
+
+        String username = claims[0];
+        long issuedAt = Long.parseLong(claims[1]);
+        long expiresAt = Long.parseLong(claims[2]);
+        if (expiresAt <= System.currentTimeMillis()) {
+            return null;
+        }
+
+        if (issuedAt <= notBefore.get(username, tokenRevocationRepository::findNotBefore)) {
+            return null;
+        }
+
+        List<GrantedAuthority> authorities = RoleSet.parse(claims[3]).authorities();
+        UserDetails principal = org.springframework.security.core.userdetails.User
+            .withUsername(username)
+            .password("")
+            .authorities(authorities)
+            .build();
+
+        return UsernamePasswordAuthenticationToken.authenticated(principal, token, authorities);
+    }
+
+    public void revoke(String username) {
+        tokenRevocationRepository.revoke(username, System.currentTimeMillis());
+        notBefore.invalidate(username);
+    }
+
+    @Scheduled(fixedDelayString = "${app.auth.token.revocation.purge-interval:PT1H}")
+    public void purgeRevocations() {
+        long cutoff = System.currentTimeMillis() - timeToLive.toMillis();
+        int purged = tokenRevocationRepository.deleteRevokedBefore(cutoff);
+        log.debug("Purged {} token revocations older than {}", purged, timeToLive);
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.change() != Change.PASSWORD_CHANGED && event.change() != Change.DELETED) {
+            return;
+        }
+        if (event.replayed()) {
+            // The writer already stored the revocation; only the cached read is out of date.
+            notBefore.invalidate(event.username());
+        }
+        else {
+            revoke(event.username());
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
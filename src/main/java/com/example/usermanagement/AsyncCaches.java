@@ -0,0 +1,49 @@
+package com.example.usermanagement;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+
+/**
+ * Fills an {@link AsyncCache} on the calling thread. Only an incomplete future is installed
+ * under the cache's lock; the load itself runs outside it, so a slow query never holds a
+ * monitor that would pin a virtual thread. Concurrent callers for the same key wait on that
+ * future. An invalidation removes the in-flight future at once, so its result is handed to
+ * the caller that loaded it but never cached. A {@code null} result is not cached either.
+ */
+final class AsyncCaches {
+
+    private AsyncCaches() {
+    }
+
+    static <V> V get(AsyncCache<String, V> cache, String key, Function<String, V> loader) {
+        CompletableFuture<V> loading = new CompletableFuture<>();
+        CompletableFuture<V> future = cache.get(key, (name, executor) -> loading);
+        if (future == loading) {
+            try {
+                loading.complete(loader.apply(key));
+            } catch (RuntimeException | Error e) {
+                loading.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the cached value without waiting for a load in flight.
+     */
+    static <V> V getIfLoaded(AsyncCache<String, V> cache, String key) {
+        CompletableFuture<V> future = cache.getIfPresent(key);
+        return future == null || !future.isDone() || future.isCompletedExceptionally() ? null : future.join();
+    }
+}
@@ -1,38 +0,0 @@
-package com.example.usermanagement;
-
-import jakarta.persistence.Column;
-import jakarta.persistence.Entity;
-import jakarta.persistence.GeneratedValue;
-import jakarta.persistence.GenerationType;
-import jakarta.persistence.Id;
-import jakarta.persistence.Table;
-import jakarta.persistence.UniqueConstraint;
-
-@Entity
-@Table(
-    name = "AUTHORITIES",
-    uniqueConstraints = @UniqueConstraint(
-        name = "unique_username_authority" ,
-        columnNames = {"USERNAME", "AUTHORITY"}
-    )
-)
-public class Authority {
-
-    @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
-    private Long id;
-
-    @Column(length = 128)
-    private String authority;
-
-    public Authority() {}
-
-    public Authority(String authority) {
-        this.authority = authority;
-    }
-
-    public String getAuthority() {
-        return authority;
-    }
-
-}
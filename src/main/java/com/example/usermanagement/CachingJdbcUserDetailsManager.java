@@ -0,0 +1,79 @@
+package com.example.usermanagement;
+
+import javax.sql.DataSource;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.security.provisioning.JdbcUserDetailsManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.example.usermanagement.UserChangedEvent.Change;
+
+/**
+ * {@link JdbcUserDetailsManager} that answers {@link #loadUserByUsername(String)} from a
+ * {@link UserLookupCache} before falling back to the users and authorities queries. It also
+ * stores the rehashed passwords produced when a login finds an outdated hash. Cache misses
+ * run in a read-only transaction so a routing datasource can serve them from the replica,
+ * unless the user changed within the replica's maximum lag. Pass the same cache to
+ * {@link #setUserCache} so the inherited user updates evict it too.
+ */
+public class CachingJdbcUserDetailsManager extends JdbcUserDetailsManager implements UserDetailsPasswordService {
+
+    private static final String UPDATE_PASSWORD_SQL = "UPDATE users SET password = ? WHERE username = ?";
+
+    private final UserLookupCache userCache;
+
+    private final UserChangeFeed userChangeFeed;
+
+    private final TransactionTemplate transaction;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public CachingJdbcUserDetailsManager(
+        DataSource dataSource,
+        UserLookupCache userCache,
+        UserChangeFeed userChangeFeed,
+        PlatformTransactionManager transactionManager) {
+        super(dataSource);
+        this.userCache = userCache;
+        this.userChangeFeed = userChangeFeed;
+        this.transaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
+        UserDetails userDetails = userCache.getUserDetails(username, this::loadIfExists);
+        if (userDetails == null) {
+            throw new UsernameNotFoundException("User " + username + " not found");
+        }
+        return userDetails;
+    }
+
+    private UserDetails loadIfExists(String username) {
+        UserDetails loaded;
+        try {
+            loaded = readOnlyTransaction.execute(status -> super.loadUserByUsername(username));
+        } catch (UsernameNotFoundException e) {
+            return null;
+        }
+        // Cached entries share the interned authority instances of their role combination.
+        return User.withUserDetails(loaded)
+            .authorities(RoleSet.of(loaded.getAuthorities()).authorities())
+            .build();
+    }
+
+    @Override
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        // The password itself is unchanged, so other instances only need to reload the hash.
+        transaction.executeWithoutResult(status -> {
+            if (getJdbcTemplate().update(UPDATE_PASSWORD_SQL, newPassword, user.getUsername()) > 0) {
+                userChangeFeed.record(user.getUsername(), Change.UPDATED);
+            }
+        });
+        userCache.removeUserFromCache(user.getUsername());
+        return User.withUserDetails(user).password(newPassword).build();
+    }
+}
@@ -2,19 +2,35 @@ package com.example.usermanagement;
 
 import static org.springframework.security.config.Customizer.withDefaults;
 import static org.springframework.security.web.csrf.CookieCsrfTokenRepository.withHttpOnlyFalse;
+import java.time.Duration;
+import java.util.Map;
 import javax.sql.DataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.session.SessionRegistry;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.security.provisioning.JdbcUserDetailsManager;
-import org.springframework.security.provisioning.UserDetailsManager;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
 import org.springframework.security.web.csrf.CsrfTokenRequestAttributeHandler;
 import org.springframework.security.web.session.HttpSessionEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 
 @Configuration
@@ -23,19 +39,20 @@ import lombok.extern.slf4j.Slf4j;
 public class Config {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(
+        HttpSecurity http,
+        SessionRegistry sessionRegistry,
+        ObjectProvider<AccessTokenService> accessTokenService) throws Exception {
+
         var csrfTokenRequestHandler = new CsrfTokenRequestAttributeHandler();
 
         http
             .logout(logout -> logout
                 .logoutUrl("/home/logout"))
-            .sessionManagement(session -> session
-                .maximumSessions(1))
-            .csrf(csrf -> csrf
-                .csrfTokenRepository(withHttpOnlyFalse())
-                .csrfTokenRequestHandler(csrfTokenRequestHandler))
             .authorizeHttpRequests(authorizeHttpRequests -> authorizeHttpRequests
                 .requestMatchers("/home/admin/**").hasRole("ADMIN")
+                .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+                .requestMatchers(EndpointRequest.toAnyEndpoint()).hasRole("ADMIN")
                 .requestMatchers("/home/sign-up").permitAll()
                 .requestMatchers(HttpMethod.GET, "/home/login").permitAll()
                 .requestMatchers("/home/forget-password").permitAll()
@@ -43,17 +60,94 @@ public class Config {
                 .anyRequest().authenticated())
             .httpBasic(withDefaults());
 
+        AccessTokenService tokenService = accessTokenService.getIfAvailable();
+        if (tokenService == null) {
+            http
+                .sessionManagement(session -> session
+                    .maximumSessions(1)
+                    .sessionRegistry(sessionRegistry))
+                .csrf(csrf -> csrf
+                    .csrfTokenRepository(withHttpOnlyFalse())
+                    .csrfTokenRequestHandler(csrfTokenRequestHandler));
+        }
+        else {
+            // Bearer tokens are never sent implicitly by a browser, so they need no CSRF token.
+            http
+                .sessionManagement(session -> session
+                    .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(csrf -> csrf
+                    .csrfTokenRepository(withHttpOnlyFalse())
+                    .csrfTokenRequestHandler(csrfTokenRequestHandler)
+                    .ignoringRequestMatchers(AccessTokenAuthenticationFilter::hasBearerToken))
+                .addFilterBefore(
+                    new AccessTokenAuthenticationFilter(tokenService),
+                    BasicAuthenticationFilter.class);
+        }
+
         return http.build();
     }
 
     @Bean
-    public UserDetailsManager users(DataSource dataSource) {
-        return new JdbcUserDetailsManager(dataSource);
+    public CachingJdbcUserDetailsManager users(
+        DataSource dataSource,
+        UserLookupCache userLookupCache,
+        UserChangeFeed userChangeFeed,
+        PlatformTransactionManager transactionManager) {
+        CachingJdbcUserDetailsManager users =
+            new CachingJdbcUserDetailsManager(dataSource, userLookupCache, userChangeFeed, transactionManager);
+        users.setUserCache(userLookupCache);
+        return users;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.auth.credential-cache.enabled", havingValue = "true")
+    public AuthenticationProvider credentialCachingAuthenticationProvider(
+        UserDetailsService userDetailsService,
+        UserDetailsPasswordService userDetailsPasswordService,
+        PasswordEncoder passwordEncoder,
+        VerifiedCredentialCache verifiedCredentialCache) {
+
+        var daoAuthenticationProvider = new DaoAuthenticationProvider();
+        daoAuthenticationProvider.setUserDetailsService(userDetailsService);
+        daoAuthenticationProvider.setUserDetailsPasswordService(userDetailsPasswordService);
+        daoAuthenticationProvider.setPasswordEncoder(passwordEncoder);
+
+        return new CredentialCachingAuthenticationProvider(
+            daoAuthenticationProvider, userDetailsService, verifiedCredentialCache);
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+        MeterRegistry meterRegistry,
+        @Value("${app.password.encoder:bcrypt}") String encodingId,
+        @Value("${app.password.target-verification-time:250ms}") Duration targetVerificationTime,
+        @Value("${app.password.bcrypt.min-strength:10}") int bcryptMinStrength,
+        @Value("${app.password.argon2.memory-kib:19456}") int argon2MemoryKib,
+        @Value("${app.password.argon2.min-iterations:2}") int argon2MinIterations,
+        @Value("${app.password.pbkdf2.iterations:310000}") int pbkdf2Iterations) {
+
+        var calibration = new PasswordEncoderCalibration(targetVerificationTime);
+        var bcrypt = encodingId.equals("bcrypt")
+            ? calibration.bcrypt(bcryptMinStrength)
+            : new BCryptPasswordEncoder(bcryptMinStrength);
+        var argon2 = encodingId.equals("argon2")
+            ? calibration.argon2(argon2MemoryKib, argon2MinIterations)
+            : PasswordEncoderCalibration.argon2Encoder(argon2MemoryKib, argon2MinIterations);
+
+        // PBKDF2 hashes do not record their iteration count, so it is configured rather than calibrated.
+        var pbkdf2 = new Pbkdf2PasswordEncoder(
+            "", 16, pbkdf2Iterations, Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+
+        Map<String, PasswordEncoder> encoders = Map.of(
+            "bcrypt", bcrypt,
+            "argon2", argon2,
+            "pbkdf2", pbkdf2);
+
+        var delegatingPasswordEncoder = new DelegatingPasswordEncoder(encodingId, encoders);
+        // Hashes stored before ids were prefixed are plain bcrypt; they match and get upgraded on login.
+        delegatingPasswordEncoder.setDefaultPasswordEncoderForMatches(bcrypt);
+
+        return new TimedPasswordEncoder(delegatingPasswordEncoder, meterRegistry);
     }
 
     @Bean
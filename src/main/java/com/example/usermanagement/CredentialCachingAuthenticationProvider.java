@@ -0,0 +1,70 @@
+package com.example.usermanagement;
+
+import org.springframework.security.authentication.AccountStatusUserDetailsChecker;
+import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsChecker;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+/**
+ * Skips the password encoder for credentials that already passed a full check within the
+ * {@link VerifiedCredentialCache} time-to-live, and delegates everything else.
+ */
+public class CredentialCachingAuthenticationProvider implements AuthenticationProvider {
+
+    private final AuthenticationProvider delegate;
+
+    private final UserDetailsService userDetailsService;
+
+    private final VerifiedCredentialCache verifiedCredentialCache;
+
+    private final UserDetailsChecker userDetailsChecker = new AccountStatusUserDetailsChecker();
+
+    public CredentialCachingAuthenticationProvider(
+        AuthenticationProvider delegate,
+        UserDetailsService userDetailsService,
+        VerifiedCredentialCache verifiedCredentialCache) {
+
+        this.delegate = delegate;
+        this.userDetailsService = userDetailsService;
+        this.verifiedCredentialCache = verifiedCredentialCache;
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        String username = authentication.getName();
+        Object credentials = authentication.getCredentials();
+
+        if (credentials == null) {
+            return delegate.authenticate(authentication);
+        }
+
+        String rawPassword = credentials.toString();
+        if (verifiedCredentialCache.matches(username, rawPassword)) {
+            try {
+                UserDetails user = userDetailsService.loadUserByUsername(username);
+                userDetailsChecker.check(user);
+                UsernamePasswordAuthenticationToken result = UsernamePasswordAuthenticationToken
+                    .authenticated(user, credentials, user.getAuthorities());
+                result.setDetails(authentication.getDetails());
+                return result;
+            } catch (UsernameNotFoundException e) {
+                verifiedCredentialCache.invalidate(username);
+            }
+        }
+
+        long generation = verifiedCredentialCache.generation(username);
+        Authentication result = delegate.authenticate(authentication);
+        verifiedCredentialCache.remember(username, rawPassword, generation);
+        return result;
+    }
+
+    @Override
+    public boolean supports(Class<?> authentication) {
+        return delegate.supports(authentication);
+    }
+}
@@ -1,42 +1,70 @@
 package com.example.usermanagement;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Creates the default accounts when the {@code seed} profile is active. Accounts that already
+ * exist are left untouched, so it is safe to run against a populated database and costs one
+ * primary-key lookup when there is nothing to do. Each account is inserted on its own and a
+ * duplicate key skips it, so instances starting together against one database do not fail on
+ * rows another of them inserted after the lookup.
+ */
 @Service
+@Profile("seed")
+@Slf4j
 public class DatabaseInitializer {
 
     @Autowired
     UserManagementRepository userManagementRepository;
 
     @Autowired
-    PasswordResetTokenRepository passwordResetTokenRepository;
+    PasswordEncoder passwordEncoder;
 
     @Autowired
-    PasswordEncoder passwordEncoder;
+    UserExistenceFilter userExistenceFilter;
 
     @PostConstruct
     public void init() {
-        passwordResetTokenRepository.deleteAll();
-        userManagementRepository.deleteAll();
-
-        User defaultAdmin = new User();
-        defaultAdmin.setUsername("defaultAdmin");
-        defaultAdmin.setPassword(passwordEncoder.encode("defaultAdminPassword"));
-        defaultAdmin.setEmail("defaultAdmin@domain.com");
-        defaultAdmin.setEnabled(true);
-        defaultAdmin.setRoles("ADMIN", "USER");
-        userManagementRepository.save(defaultAdmin);
-
-        User defaultUser = new User();
-        defaultUser.setUsername("defaultUser");
-        defaultUser.setPassword(passwordEncoder.encode("defaultUserPassword"));
-        defaultUser.setEmail("defaultUser@domain.com");
-        defaultUser.setEnabled(true);
-        defaultUser.setRoles("USER");
-
-        userManagementRepository.save(defaultUser);
+        Set<String> existing = userManagementRepository.findExistingUsernames(List.of("defaultAdmin", "defaultUser"));
+
+        List<User> missing = new ArrayList<>(2);
+        if (!existing.contains("defaultAdmin")) {
+            User defaultAdmin = new User();
+            defaultAdmin.setUsername("defaultAdmin");
+            defaultAdmin.setPassword(passwordEncoder.encode("defaultAdminPassword"));
+            defaultAdmin.setEmail("defaultAdmin@domain.com");
+            defaultAdmin.setEnabled(true);
+            defaultAdmin.setRoles("ADMIN", "USER");
+            missing.add(defaultAdmin);
+        }
+
+        if (!existing.contains("defaultUser")) {
+            User defaultUser = new User();
+            defaultUser.setUsername("defaultUser");
+            defaultUser.setPassword(passwordEncoder.encode("defaultUserPassword"));
+            defaultUser.setEmail("defaultUser@domain.com");
+            defaultUser.setEnabled(true);
+            defaultUser.setRoles("USER");
+            missing.add(defaultUser);
+        }
+
+        int seeded = 0;
+        for (User user : missing) {
+            if (userManagementRepository.insertUser(user)) {
+                userExistenceFilter.add(user.getUsername(), user.getEmail());
+                seeded++;
+            }
+        }
+        if (seeded > 0) {
+            log.info("Seeded {} default users", seeded);
+        }
     }
 }
@@ -0,0 +1,130 @@
+package com.example.usermanagement;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Session registry kept in the {@code user_sessions} table, so concurrent-session limits hold
+ * across every instance pointing at the same database. Last-request times are written at most
+ * once per refresh interval per session, and rows of sessions whose instance went away
+ * without destroying them are purged after the session timeout.
+ *
+ * <p>{@link #getSessionInformation(String)} runs on every request that carries a session, so
+ * each session's row is cached for {@code app.session-registry.database.cache-time-to-live}.
+ * Changes made on this instance drop the entry at once; a session expired by a login on
+ * another instance keeps working here until the entry times out.
+ */
+@Component
+@ConditionalOnProperty(name = "app.session-registry.store", havingValue = "database")
+@Slf4j
+public class DatabaseSessionRegistry extends AbstractSessionRegistry {
+
+    @Autowired
+    private UserSessionRepository userSessionRepository;
+
+    @Value("${app.session-registry.database.refresh-interval:1m}")
+    private Duration refreshInterval;
+
+    @Value("${app.session-registry.database.cache-time-to-live:5s}")
+    private Duration cacheTimeToLive;
+
+    @Value("${server.servlet.session.timeout:30m}")
+    private Duration sessionTimeout;
+
+    private final Map<String, Long> lastWrittenRequest = new ConcurrentHashMap<>();
+
+    private AsyncCache<String, UserSession> sessions;
+
+    @PostConstruct
+    public void createCache() {
+        sessions = Caffeine.newBuilder()
+            .expireAfterWrite(cacheTimeToLive)
+            .buildAsync();
+    }
+
+    @Override
+    public List<Object> getAllPrincipals() {
+        return new ArrayList<>(userSessionRepository.findAllUsernames());
+    }
+
+    @Override
+    public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+        List<SessionInformation> result = new ArrayList<>();
+        for (UserSession session : userSessionRepository.findByUsername(principalName(principal))) {
+            if (includeExpiredSessions || !session.isExpired()) {
+                result.add(toSessionInformation(session));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public SessionInformation getSessionInformation(String sessionId) {
+        UserSession session = AsyncCaches.get(
+            sessions, sessionId, id -> userSessionRepository.findById(id).orElse(null));
+        return session == null ? null : toSessionInformation(session);
+    }
+
+    @Override
+    public void refreshLastRequest(String sessionId) {
+        long now = System.currentTimeMillis();
+        Long lastWritten = lastWrittenRequest.get(sessionId);
+        if (lastWritten != null && now - lastWritten < refreshInterval.toMillis()) {
+            return;
+        }
+        lastWrittenRequest.put(sessionId, now);
+        userSessionRepository.touch(sessionId, new Date(now));
+    }
+
+    @Override
+    public void registerNewSession(String sessionId, Object principal) {
+        long now = System.currentTimeMillis();
+        userSessionRepository.save(new UserSession(sessionId, principalName(principal), new Date(now)));
+        lastWrittenRequest.put(sessionId, now);
+        sessions.synchronous().invalidate(sessionId);
+    }
+
+    @Override
+    public void removeSessionInformation(String sessionId) {
+        lastWrittenRequest.remove(sessionId);
+        userSessionRepository.remove(sessionId);
+        sessions.synchronous().invalidate(sessionId);
+    }
+
+    @Override
+    protected void expire(String sessionId) {
+        userSessionRepository.expire(sessionId);
+        sessions.synchronous().invalidate(sessionId);
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.session-registry.database.purge-interval:PT5M}",
+        fixedDelayString = "${app.session-registry.database.purge-interval:PT5M}")
+    public void purgeAbandonedSessions() {
+        long cutoff = System.currentTimeMillis() - sessionTimeout.toMillis();
+        int purged = userSessionRepository.removeIdleSince(new Date(cutoff));
+        if (purged > 0) {
+            log.debug("Purged {} abandoned sessions", purged);
+        }
+        lastWrittenRequest.values().removeIf(lastWritten -> lastWritten < cutoff);
+    }
+
+    private SessionInformation toSessionInformation(UserSession session) {
+        return sessionInformation(
+            session.getUsername(), session.getSessionId(), session.getLastRequest(), session.isExpired());
+    }
+}
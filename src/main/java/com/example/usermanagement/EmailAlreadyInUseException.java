@@ -0,0 +1,15 @@
+package com.example.usermanagement;
+
+import org.springframework.dao.DuplicateKeyException;
+
+/**
+ * Thrown when a write would give a second user an email address that is already taken.
+ */
+public class EmailAlreadyInUseException extends DuplicateKeyException {
+
+    private static final long serialVersionUID = 1L;
+
+    public EmailAlreadyInUseException(Throwable cause) {
+        super("Email already in use", cause);
+    }
+}
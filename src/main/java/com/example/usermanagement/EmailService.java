@@ -1,16 +1,121 @@
 package com.example.usermanagement;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMailMessage;
 import org.springframework.stereotype.Service;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.internet.MimeMessage;
+import lombok.extern.slf4j.Slf4j;
 
+/**
+ * Queues outgoing mail and hands it to {@link JavaMailSender} in batches from a small
+ * worker pool, so SMTP latency never lands on a request thread. Each batch goes out over
+ * a single transport connection; failed messages are retried with exponential backoff.
+ */
 @Service
+@Slf4j
 public class EmailService {
 
     @Autowired
     private JavaMailSender mailSender;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.email.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${app.email.workers:2}")
+    private int workers;
+
+    @Value("${app.email.batch-size:50}")
+    private int batchSize;
+
+    @Value("${app.email.enqueue-timeout:100ms}")
+    private Duration enqueueTimeout;
+
+    @Value("${app.email.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${app.email.initial-backoff:1s}")
+    private Duration initialBackoff;
+
+    @Value("${app.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    private BlockingQueue<PendingEmail> queue;
+
+    private ExecutorService dispatchExecutor;
+
+    private ScheduledExecutorService retryScheduler;
+
+    private volatile boolean running;
+
+    private Timer sendTimer;
+
+    private Counter sentCounter;
+
+    private Counter retriedCounter;
+
+    private Counter failedCounter;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+
+        meterRegistry.gauge("email.queue.depth", queue, BlockingQueue::size);
+        sendTimer = Timer.builder("email.send")
+            .description("Time spent handing one batch to the SMTP server")
+            .register(meterRegistry);
+        sentCounter = meterRegistry.counter("email.sent");
+        retriedCounter = meterRegistry.counter("email.retried");
+        failedCounter = meterRegistry.counter("email.failed");
+        rejectedCounter = meterRegistry.counter("email.rejected");
+
+        running = true;
+        dispatchExecutor = Executors.newFixedThreadPool(workers, threadFactory("email-dispatch-"));
+        for (int i = 0; i < workers; i++) {
+            dispatchExecutor.execute(this::dispatchLoop);
+        }
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(threadFactory("email-retry-"));
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        retryScheduler.shutdownNow();
+        dispatchExecutor.shutdown();
+        if (!dispatchExecutor.awaitTermination(5, TimeUnit.SECONDS)) {
+            dispatchExecutor.shutdownNow();
+        }
+        if (!queue.isEmpty()) {
+            log.warn("Discarding {} queued emails on shutdown", queue.size());
+        }
+    }
+
     public void sendSimpleEmail(String toEmail, String subject, String message) {
         SimpleMailMessage mailMessage = new SimpleMailMessage();
         mailMessage.setTo(toEmail);
@@ -18,6 +123,111 @@ public class EmailService {
         mailMessage.setText(message);
         mailMessage.setFrom("your_email@gmail.com");
 
-        mailSender.send(mailMessage);
+        MimeMessage mimeMessage = mailSender.createMimeMessage();
+        mailMessage.copyTo(new MimeMailMessage(mimeMessage));
+
+        enqueue(new PendingEmail(mimeMessage, 1));
     }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    private void enqueue(PendingEmail email) {
+        boolean accepted;
+        try {
+            accepted = queue.offer(email, enqueueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+
+        if (!accepted) {
+            rejectedCounter.increment();
+            throw new MailSendException("Email queue is full");
+        }
+    }
+
+    private void dispatchLoop() {
+        List<PendingEmail> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                PendingEmail first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Unexpected failure while dispatching emails", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void send(List<PendingEmail> batch) {
+        MimeMessage[] messages = new MimeMessage[batch.size()];
+        for (int i = 0; i < messages.length; i++) {
+            messages[i] = batch.get(i).message();
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            mailSender.send(messages);
+            sentCounter.increment(batch.size());
+        } catch (MailSendException e) {
+            Map<Object, Exception> failedMessages = e.getFailedMessages();
+            for (PendingEmail email : batch) {
+                if (failedMessages.isEmpty() || failedMessages.containsKey(email.message())) {
+                    retry(email, e);
+                } else {
+                    sentCounter.increment();
+                }
+            }
+        } catch (MailException e) {
+            batch.forEach(email -> retry(email, e));
+        } finally {
+            sample.stop(sendTimer);
+        }
+    }
+
+    private void retry(PendingEmail email, Exception cause) {
+        if (email.attempt() >= maxAttempts) {
+            failedCounter.increment();
+            log.warn("Giving up on email after {} attempts", email.attempt(), cause);
+            return;
+        }
+
+        long delay = initialBackoff.toMillis() << (email.attempt() - 1);
+        log.debug("Retrying email in {} ms after attempt {} failed", delay, email.attempt());
+        retriedCounter.increment();
+
+        PendingEmail next = new PendingEmail(email.message(), email.attempt() + 1);
+        retryScheduler.schedule(() -> {
+            if (!queue.offer(next)) {
+                failedCounter.increment();
+                log.warn("Dropping email retry because the queue is full");
+            }
+        }, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private ThreadFactory threadFactory(String prefix) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    private record PendingEmail(MimeMessage message, int attempt) {}
 }
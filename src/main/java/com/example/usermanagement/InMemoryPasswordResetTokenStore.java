@@ -0,0 +1,108 @@
+package com.example.usermanagement;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Keeps reset tokens in a {@link ConcurrentHashMap} for O(1) lookup and expires them with
+ * a hashed timing wheel: each token is filed under the slot for the tick it expires in,
+ * and every tick only the tokens in the current slot are examined.
+ *
+ * <p>Tokens live ten hours, so the default wheel of 1024 one-minute ticks turns once in about
+ * seventeen hours and each token is examined once, when it expires. A token outliving one
+ * revolution is still correct, merely re-examined each time its slot comes round. Expiry here
+ * only frees memory and may run up to a tick late; consumers check the expiry date themselves.
+ */
+@Component
+@ConditionalOnProperty(name = "app.password-reset.token-store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryPasswordResetTokenStore implements PasswordResetTokenStore {
+
+    private final Map<String, PasswordResetToken> tokens = new ConcurrentHashMap<>();
+
+    private final Queue<String>[] wheel;
+
+    private final long tickMillis;
+
+    private long lastTick;
+
+    public InMemoryPasswordResetTokenStore(
+        @Value("${app.password-reset.memory-store.tick-millis:60000}") long tickMillis,
+        @Value("${app.password-reset.memory-store.wheel-size:1024}") int wheelSize,
+        MeterRegistry meterRegistry) {
+
+        this.tickMillis = tickMillis;
+        @SuppressWarnings("unchecked")
+        Queue<String>[] slots = (Queue<String>[]) new Queue<?>[wheelSize];
+        this.wheel = slots;
+        for (int i = 0; i < wheelSize; i++) {
+            wheel[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.lastTick = System.currentTimeMillis() / tickMillis;
+
+        meterRegistry.gaugeMapSize("password-reset.tokens", Tags.empty(), tokens);
+    }
+
+    @Override
+    public void save(PasswordResetToken token) {
+        tokens.put(token.getTokenValue(), token);
+        wheel[slot(expiryTick(token))].add(token.getTokenValue());
+    }
+
+    @Override
+    public PasswordResetToken consume(String tokenValue) {
+        return tokens.remove(tokenValue);
+    }
+
+    /**
+     * Scans the outstanding tokens, which the expiry keeps to those issued within the token
+     * lifetime. Wheel entries of removed tokens are discarded when their slot comes round.
+     */
+    @Override
+    public void removeByUsername(String username) {
+        tokens.values().removeIf(token -> username.equals(token.getUser().getUsername()));
+    }
+
+    @Scheduled(fixedRateString = "${app.password-reset.memory-store.tick-millis:60000}")
+    public void advance() {
+        long currentTick = System.currentTimeMillis() / tickMillis;
+        // After a long pause one full revolution already covers every slot.
+        long firstTick = Math.max(lastTick + 1, currentTick - wheel.length + 1);
+
+        for (long tick = firstTick; tick <= currentTick; tick++) {
+            expire(wheel[slot(tick)], currentTick);
+        }
+        lastTick = currentTick;
+    }
+
+    private void expire(Queue<String> bucket, long currentTick) {
+        Iterator<String> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            String tokenValue = iterator.next();
+            PasswordResetToken token = tokens.get(tokenValue);
+
+            if (token == null) {
+                iterator.remove();
+            } else if (expiryTick(token) <= currentTick) {
+                tokens.remove(tokenValue, token);
+                iterator.remove();
+            }
+        }
+    }
+
+    private long expiryTick(PasswordResetToken token) {
+        return token.getExpiryDate().getTime() / tickMillis;
+    }
+
+    private int slot(long tick) {
+        return (int) Math.floorMod(tick, (long) wheel.length);
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.usermanagement;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "app.password-reset.token-store", havingValue = "jpa")
+public class JpaPasswordResetTokenStore implements PasswordResetTokenStore {
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Override
+    public void save(PasswordResetToken token) {
+        passwordResetTokenRepository.save(token);
+    }
+
+    /**
+     * Only the caller whose delete removes the row gets the token, so concurrent resets with
+     * the same value cannot both succeed.
+     */
+    @Override
+    public PasswordResetToken consume(String tokenValue) {
+        PasswordResetToken token = passwordResetTokenRepository.findByTokenValue(tokenValue);
+        if (token == null || passwordResetTokenRepository.deleteByTokenValue(tokenValue) != 1) {
+            return null;
+        }
+        return token;
+    }
+
+    @Override
+    public void removeByUsername(String username) {
+        passwordResetTokenRepository.deleteByUsername(username);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.usermanagement;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.security.core.session.SessionInformation;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+
+/**
+ * Single-instance session registry. Each session costs one small entry holding the owner's
+ * username and two primitives; the per-user session id sets are guarded by a fixed array of
+ * lock stripes instead of one registry-wide lock.
+ */
+@Component
+@ConditionalOnProperty(name = "app.session-registry.store", havingValue = "local", matchIfMissing = true)
+public class LocalSessionRegistry extends AbstractSessionRegistry {
+
+    private final Map<String, Entry> sessions = new ConcurrentHashMap<>();
+
+    private final Map<String, Set<String>> sessionIdsByUsername = new ConcurrentHashMap<>();
+
+    private final Object[] stripes;
+
+    public LocalSessionRegistry(
+        @Value("${app.session-registry.local.stripes:64}") int stripeCount,
+        MeterRegistry meterRegistry) {
+
+        stripes = new Object[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Object();
+        }
+
+        meterRegistry.gaugeMapSize("sessions.active", Tags.empty(), sessions);
+    }
+
+    @Override
+    public List<Object> getAllPrincipals() {
+        return new ArrayList<>(sessionIdsByUsername.keySet());
+    }
+
+    @Override
+    public List<SessionInformation> getAllSessions(Object principal, boolean includeExpiredSessions) {
+        String username = principalName(principal);
+        List<String> sessionIds;
+        synchronized (stripe(username)) {
+            Set<String> ids = sessionIdsByUsername.get(username);
+            if (ids == null) {
+                return new ArrayList<>();
+            }
+            sessionIds = new ArrayList<>(ids);
+        }
+
+        List<SessionInformation> result = new ArrayList<>(sessionIds.size());
+        for (String sessionId : sessionIds) {
+            Entry entry = sessions.get(sessionId);
+            if (entry != null && (includeExpiredSessions || !entry.expired)) {
+                result.add(toSessionInformation(sessionId, entry));
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public SessionInformation getSessionInformation(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        return entry != null ? toSessionInformation(sessionId, entry) : null;
+    }
+
+    @Override
+    public void refreshLastRequest(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        if (entry != null) {
+            entry.lastRequest = System.currentTimeMillis();
+        }
+    }
+
+    @Override
+    public void registerNewSession(String sessionId, Object principal) {
+        String username = principalName(principal);
+        synchronized (stripe(username)) {
+            sessions.put(sessionId, new Entry(username, System.currentTimeMillis()));
+            sessionIdsByUsername.computeIfAbsent(username, key -> new HashSet<>(2)).add(sessionId);
+        }
+    }
+
+    @Override
+    public void removeSessionInformation(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        if (entry == null) {
+            return;
+        }
+
+        synchronized (stripe(entry.username)) {
+            sessions.remove(sessionId);
+            Set<String> ids = sessionIdsByUsername.get(entry.username);
+            if (ids != null && ids.remove(sessionId) && ids.isEmpty()) {
+                sessionIdsByUsername.remove(entry.username);
+            }
+        }
+    }
+
+    @Override
+    protected void expire(String sessionId) {
+        Entry entry = sessions.get(sessionId);
+        if (entry != null) {
+            entry.expired = true;
+        }
+    }
+
+    private SessionInformation toSessionInformation(String sessionId, Entry entry) {
+        return sessionInformation(entry.username, sessionId, new Date(entry.lastRequest), entry.expired);
+    }
+
+    private Object stripe(String username) {
+        return stripes[Math.floorMod(username.hashCode(), stripes.length)];
+    }
+
+    private static final class Entry {
+
+        final String username;
+
+        volatile long lastRequest;
+
+        volatile boolean expired;
+
+        Entry(String username, long lastRequest) {
+            this.username = username;
+            this.lastRequest = lastRequest;
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.usermanagement;
+
+import java.time.Duration;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Picks work factors at startup by timing {@code matches} on this machine, choosing the
+ * most expensive setting whose verification still fits the target time. Only algorithms
+ * that record their parameters in the hash are calibrated; raising the cost later makes
+ * {@code upgradeEncoding} report existing hashes as outdated, so they are rehashed on the
+ * next successful login.
+ */
+@Slf4j
+public class PasswordEncoderCalibration {
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+
+    private static final int MAX_BCRYPT_STRENGTH = 16;
+
+    private static final int MAX_ARGON2_ITERATIONS = 10;
+
+    private final Duration targetVerificationTime;
+
+    public PasswordEncoderCalibration(Duration targetVerificationTime) {
+        this.targetVerificationTime = targetVerificationTime;
+    }
+
+    public BCryptPasswordEncoder bcrypt(int minStrength) {
+        int strength = minStrength;
+        while (strength < MAX_BCRYPT_STRENGTH && fitsTarget(new BCryptPasswordEncoder(strength + 1))) {
+            strength++;
+        }
+        log.info("Calibrated bcrypt strength {} for a {} ms verification target", strength, targetVerificationTime.toMillis());
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    public Argon2PasswordEncoder argon2(int memoryKib, int minIterations) {
+        int iterations = minIterations;
+        while (iterations < MAX_ARGON2_ITERATIONS && fitsTarget(argon2Encoder(memoryKib, iterations + 1))) {
+            iterations++;
+        }
+        log.info("Calibrated argon2 to {} iterations over {} KiB for a {} ms verification target",
+            iterations, memoryKib, targetVerificationTime.toMillis());
+        return argon2Encoder(memoryKib, iterations);
+    }
+
+    static Argon2PasswordEncoder argon2Encoder(int memoryKib, int iterations) {
+        return new Argon2PasswordEncoder(16, 32, 1, memoryKib, iterations);
+    }
+
+    private boolean fitsTarget(PasswordEncoder encoder) {
+        String encoded = encoder.encode(SAMPLE_PASSWORD);
+
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < 2; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, encoded);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best <= targetVerificationTime.toNanos();
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.usermanagement;
 
 import java.net.URI;
+import java.time.Duration;
 import java.util.Date;
 import java.util.UUID;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.UriComponentsBuilder;
+import com.example.usermanagement.UserChangedEvent.Change;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
@@ -13,26 +19,50 @@ import lombok.extern.slf4j.Slf4j;
 public class PasswordResetService {
 
     @Autowired
-    public PasswordResetTokenRepository passwordResetTokenRepository;
+    public PasswordResetTokenStore passwordResetTokenStore;
 
     @Autowired
     public EmailService emailService;
 
+    // Usernames that were sent a reset link within the coalescing window.
+    private final Cache<String, Boolean> recentRequests;
+
+    public PasswordResetService(
+        @Value("${app.password-reset.coalesce-window:1m}") Duration coalesceWindow,
+        @Value("${app.password-reset.coalesce-maximum-size:100000}") long maximumSize) {
+
+        recentRequests = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(coalesceWindow)
+            .build();
+    }
+
     public void handleForgetPasswordRequest(User user, UriComponentsBuilder uriComponentsBuilder) {
 
-        PasswordResetToken token = generateToken(user);
-        log.debug("Saving token with value " + token.getTokenValue());
-        passwordResetTokenRepository.save(token);
-        URI uri = uriComponentsBuilder
-            .path("/home/reset-password")
-            .queryParam("token", token.getTokenValue())
-            .build()
-            .toUri();
-
-        emailService.sendSimpleEmail(
-            user.getEmail(),
-            "Reset Password",
-            "Click the link to reset your password: " + uri.toString());
+        if (recentRequests.asMap().putIfAbsent(user.getUsername(), Boolean.TRUE) != null) {
+            log.debug("Reset link already sent to {} within the coalescing window", user.getUsername());
+            return;
+        }
+
+        try {
+            PasswordResetToken token = generateToken(user);
+            log.debug("Saving password reset token for {}", user.getUsername());
+            passwordResetTokenStore.save(token);
+            URI uri = uriComponentsBuilder
+                .path("/home/reset-password")
+                .queryParam("token", token.getTokenValue())
+                .build()
+                .toUri();
+
+            emailService.sendSimpleEmail(
+                user.getEmail(),
+                "Reset Password",
+                "Click the link to reset your password: " + uri.toString());
+        } catch (RuntimeException e) {
+            // Let the user retry straight away if nothing was sent.
+            recentRequests.invalidate(user.getUsername());
+            throw e;
+        }
     }
 
     public PasswordResetToken generateToken(User user) {
@@ -40,16 +70,26 @@ public class PasswordResetService {
     }
 
     public User handleResetPasswordRequest(String tokenValue) {
-        PasswordResetToken token = passwordResetTokenRepository.findByTokenValue(tokenValue);
+        PasswordResetToken token = passwordResetTokenStore.consume(tokenValue);
 
         if (token == null || isTokenExpired(token)) {
             return null;
         }
-        passwordResetTokenRepository.deleteByTokenValue(tokenValue);
 
         return token.getUser();
     }
 
+    /**
+     * A link issued before the account was deleted must not reset a new account registered
+     * under the same username, and one issued before a password change must not undo it.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (event.change() == Change.DELETED || event.change() == Change.PASSWORD_CHANGED) {
+            passwordResetTokenStore.removeByUsername(event.username());
+        }
+    }
+
     public boolean isTokenExpired(PasswordResetToken token) {
         Date expiration = token.getExpiryDate();
         Date currentDate = new Date();
@@ -6,9 +6,15 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
 
 @Entity
+@Table(indexes = {
+    @Index(name = "idx_password_reset_token_value", columnList = "tokenValue", unique = true),
+    @Index(name = "idx_password_reset_token_expiry", columnList = "expiryDate")
+})
 public class PasswordResetToken {
 
     private static final int EXPIRATION = 60 * 10;
@@ -26,12 +32,16 @@ public class PasswordResetToken {
     public PasswordResetToken() {}
 
     public PasswordResetToken(String tokenValue, User user) {
+        this(tokenValue, user, calculateExpiryDate(EXPIRATION));
+    }
+
+    PasswordResetToken(String tokenValue, User user, Date expiryDate) {
         this.tokenValue = tokenValue;
         this.user = user;
-        this.expiryDate = calculateExpiryDate(EXPIRATION);
+        this.expiryDate = expiryDate;
     }
 
-    private Date calculateExpiryDate(int expiryTimeInMinutes) {
+    private static Date calculateExpiryDate(int expiryTimeInMinutes) {
         Calendar cal = Calendar.getInstance();
         cal.setTime(new Date());
         cal.add(Calendar.MINUTE, expiryTimeInMinutes);
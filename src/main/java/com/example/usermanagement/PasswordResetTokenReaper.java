@@ -0,0 +1,78 @@
+package com.example.usermanagement;
+
+import java.util.Date;
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Deletes expired rows from the JPA token table in small batches, each in its own short
+ * transaction, so the purge never holds locks on a large range of the table.
+ */
+@Component
+@ConditionalOnProperty(name = "app.password-reset.token-store", havingValue = "jpa")
+@Slf4j
+public class PasswordResetTokenReaper {
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${app.password-reset.reaper.batch-size:500}")
+    private int batchSize;
+
+    @Value("${app.password-reset.reaper.max-batches-per-run:100}")
+    private int maxBatchesPerRun;
+
+    private Counter purgedCounter;
+
+    private Timer runTimer;
+
+    @PostConstruct
+    public void registerMetrics() {
+        purgedCounter = meterRegistry.counter("password-reset.tokens.purged");
+        runTimer = meterRegistry.timer("password-reset.reaper.run");
+    }
+
+    @Scheduled(
+        initialDelayString = "${app.password-reset.reaper.interval:PT1M}",
+        fixedDelayString = "${app.password-reset.reaper.interval:PT1M}")
+    public void purgeExpiredTokens() {
+        int purged = runTimer.record(this::purge);
+        if (purged > 0) {
+            log.debug("Purged {} expired password reset tokens", purged);
+        }
+    }
+
+    private int purge() {
+        Date now = new Date();
+        int purged = 0;
+
+        for (int batch = 0; batch < maxBatchesPerRun; batch++) {
+            List<Long> ids = passwordResetTokenRepository.findExpiredIds(now, PageRequest.ofSize(batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+
+            int deleted = passwordResetTokenRepository.purgeByIds(ids);
+            purgedCounter.increment(deleted);
+            purged += deleted;
+
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return purged;
+    }
+}
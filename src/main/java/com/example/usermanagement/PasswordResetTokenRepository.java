@@ -1,12 +1,34 @@
 package com.example.usermanagement;
 
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.transaction.annotation.Transactional;
 
 public interface PasswordResetTokenRepository extends CrudRepository<PasswordResetToken, Long> {
 
     PasswordResetToken findByTokenValue(String tokenValue);
 
+    @Modifying
     @Transactional
-    void deleteByTokenValue(String tokenValue);
+    @Query("delete from PasswordResetToken t where t.tokenValue = :tokenValue")
+    int deleteByTokenValue(@Param("tokenValue") String tokenValue);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PasswordResetToken t where t.user.username = :username")
+    int deleteByUsername(@Param("username") String username);
+
+    @Query("select t.id from PasswordResetToken t where t.expiryDate < :now order by t.expiryDate")
+    List<Long> findExpiredIds(@Param("now") Date now, Pageable pageable);
+
+    @Modifying
+    @Transactional
+    @Query("delete from PasswordResetToken t where t.id in :ids")
+    int purgeByIds(@Param("ids") Collection<Long> ids);
 }
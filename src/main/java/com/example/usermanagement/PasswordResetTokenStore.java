@@ -0,0 +1,17 @@
+package com.example.usermanagement;
+
+public interface PasswordResetTokenStore {
+
+    void save(PasswordResetToken token);
+
+    /**
+     * Removes and returns the token with the given value, or {@code null} if there is none.
+     * Expiry is left to the caller.
+     */
+    PasswordResetToken consume(String tokenValue);
+
+    /**
+     * Drops every outstanding token issued to the user.
+     */
+    void removeByUsername(String username);
+}
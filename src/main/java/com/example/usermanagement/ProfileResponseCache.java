@@ -0,0 +1,100 @@
+package com.example.usermanagement;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Serialized profile responses keyed by username, each tagged with a strong ETag derived from
+ * a SHA-256 hash of the body. The tag changes exactly when the body does, so it stays valid
+ * across restarts and matches on every instance, and a profile reloaded unchanged after a
+ * {@link UserChangedEvent} keeps answering conditional requests with 304.
+ */
+@Component
+public class ProfileResponseCache {
+
+    public record ProfileResponse(String eTag, byte[] body) {}
+
+    private final AsyncCache<String, ProfileResponse> responses;
+
+    private final ObjectWriter profileWriter;
+
+    public ProfileResponseCache(
+        @Value("${app.cache.profile-responses.maximum-size:10000}") long maximumSize,
+        @Value("${app.cache.profile-responses.time-to-live:5m}") Duration timeToLive,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry) {
+
+        responses = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .buildAsync();
+        profileWriter = objectMapper.writerFor(UserProfile.class);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, responses, "users.profile-responses");
+    }
+
+    /**
+     * Returns the cached response for the user, loading and serializing the profile on a miss,
+     * or {@code null} if the loader finds no such user. The response is only ever filled through
+     * {@link AsyncCaches#get}, so a {@link #bump(String)} during the load discards its result
+     * instead of caching a body read before the change for a full time-to-live.
+     */
+    public ProfileResponse get(String username, Function<String, UserProfile> loader) {
+        return AsyncCaches.get(responses, username, name -> {
+            UserProfile profile = loader.apply(name);
+            if (profile == null) {
+                return null;
+            }
+
+            try {
+                byte[] body = profileWriter.writeValueAsBytes(profile);
+                return new ProfileResponse(eTag(body), body);
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize profile of " + name, e);
+            }
+        });
+    }
+
+    public void bump(String username) {
+        responses.synchronous().invalidate(username);
+    }
+
+    public void invalidateAll() {
+        responses.synchronous().invalidateAll();
+    }
+
+    public CacheStats stats() {
+        return responses.synchronous().stats();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        bump(event.username());
+    }
+
+    private static String eTag(byte[] body) {
+        try {
+            // 128 bits of the digest are plenty to tell one user's bodies apart.
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(body);
+            return "\"" + HexFormat.of().formatHex(Arrays.copyOf(digest, 16)) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.usermanagement;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Token-bucket limits for the anonymous endpoints, implemented as the generic cell rate
+ * algorithm: each key holds only the theoretical arrival time of its next request in an
+ * {@link AtomicLong} updated by compare-and-set, and keys live in a size-bounded cache that
+ * drops them once their bucket would be full again.
+ */
+@Component
+public class RateLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+
+    private final Limit perClient;
+
+    private final Limit perTarget;
+
+    public RateLimiter(
+        @Value("${app.rate-limit.per-client.burst:20}") int clientBurst,
+        @Value("${app.rate-limit.per-client.period:1m}") Duration clientPeriod,
+        @Value("${app.rate-limit.per-target.burst:3}") int targetBurst,
+        @Value("${app.rate-limit.per-target.period:15m}") Duration targetPeriod,
+        @Value("${app.rate-limit.maximum-keys:100000}") long maximumKeys,
+        MeterRegistry meterRegistry) {
+
+        perClient = new Limit("client", clientBurst, clientPeriod, meterRegistry);
+        perTarget = new Limit("target", targetBurst, targetPeriod, meterRegistry);
+
+        buckets = Caffeine.newBuilder()
+            .maximumSize(maximumKeys)
+            .expireAfterAccess(clientPeriod.compareTo(targetPeriod) > 0 ? clientPeriod : targetPeriod)
+            .recordStats()
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, buckets, "rate-limit.buckets");
+    }
+
+    public boolean tryAcquireForClient(String action, String clientAddress) {
+        return tryAcquire(perClient, action + "|client|" + clientAddress);
+    }
+
+    public boolean tryAcquireForTarget(String action, String target) {
+        return tryAcquire(perTarget, action + "|target|" + String.valueOf(target).trim().toLowerCase(Locale.ROOT));
+    }
+
+    private boolean tryAcquire(Limit limit, String key) {
+        AtomicLong theoreticalArrival = buckets.get(key, k -> new AtomicLong(Long.MIN_VALUE));
+        long now = System.nanoTime();
+
+        while (true) {
+            long current = theoreticalArrival.get();
+            long next = (current == Long.MIN_VALUE || current - now < 0 ? now : current) + limit.emissionInterval;
+            if (next - now > limit.burstTolerance) {
+                limit.rejected.increment();
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+
+    private static final class Limit {
+
+        final long emissionInterval;
+
+        final long burstTolerance;
+
+        final Counter rejected;
+
+        Limit(String name, int burst, Duration period, MeterRegistry meterRegistry) {
+            emissionInterval = period.toNanos() / burst;
+            burstTolerance = emissionInterval * burst;
+            rejected = meterRegistry.counter("rate-limit.rejected", "limit", name);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.usermanagement;
+
+import java.util.function.Supplier;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Sends connections requested inside a {@code @Transactional(readOnly = true)} boundary to the
+ * replica pool and everything else to the primary. Must sit behind a
+ * {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, otherwise the
+ * connection is fetched before the transaction's read-only flag is published.
+ *
+ * <p>{@link #onPrimary(Supplier)} sends reads to the primary as well, for callers that must
+ * not see a replica lagging behind a write they just made.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final ThreadLocal<Boolean> PRIMARY_ONLY = new ThreadLocal<>();
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    public static <T> T onPrimary(Supplier<T> action) {
+        Boolean previous = PRIMARY_ONLY.get();
+        PRIMARY_ONLY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PRIMARY_ONLY.set(previous);
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return TransactionSynchronizationManager.isCurrentTransactionReadOnly() && PRIMARY_ONLY.get() == null
+            ? Route.REPLICA
+            : Route.PRIMARY;
+    }
+}
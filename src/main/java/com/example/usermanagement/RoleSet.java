@@ -0,0 +1,134 @@
+package com.example.usermanagement;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+/**
+ * Immutable, interned set of authority names backed by a bit per name. The vocabulary is
+ * tiny ({@code ROLE_USER}, {@code ROLE_ADMIN} and whatever imports introduce), so every
+ * distinct combination is built once and shared, together with its {@link GrantedAuthority}
+ * instances, by all users and tokens that carry it. It only saves memory; authorization still
+ * checks the {@link GrantedAuthority} instances through Spring Security.
+ */
+public final class RoleSet {
+
+    public static final String USER = "ROLE_USER";
+
+    public static final String ADMIN = "ROLE_ADMIN";
+
+    private static final Map<String, Integer> BITS = new ConcurrentHashMap<>();
+
+    private static final List<GrantedAuthority> AUTHORITIES = new CopyOnWriteArrayList<>();
+
+    private static final ConcurrentMap<BitSet, RoleSet> INTERNED = new ConcurrentHashMap<>();
+
+    static {
+        bit(USER);
+        bit(ADMIN);
+    }
+
+    public static final RoleSet EMPTY = intern(new BitSet());
+
+    private final BitSet bits;
+
+    private final List<GrantedAuthority> authorities;
+
+    private final String joined;
+
+    private RoleSet(BitSet bits) {
+        this.bits = bits;
+        List<GrantedAuthority> authorities = new ArrayList<>(bits.cardinality());
+        for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+            authorities.add(AUTHORITIES.get(i));
+        }
+        this.authorities = Collections.unmodifiableList(authorities);
+        this.joined = String.join(",", names());
+    }
+
+    public static RoleSet of(Collection<? extends GrantedAuthority> authorities) {
+        BitSet bits = new BitSet();
+        for (GrantedAuthority authority : authorities) {
+            bits.set(bit(authority.getAuthority()));
+        }
+        return intern(bits);
+    }
+
+    /**
+     * Parses the comma-separated form produced by {@link #toString()}.
+     */
+    public static RoleSet parse(String commaSeparated) {
+        BitSet bits = new BitSet();
+        int start = 0;
+        while (start < commaSeparated.length()) {
+            int end = commaSeparated.indexOf(',', start);
+            if (end < 0) {
+                end = commaSeparated.length();
+            }
+            String name = commaSeparated.substring(start, end).trim();
+            if (!name.isEmpty()) {
+                bits.set(bit(name));
+            }
+            start = end + 1;
+        }
+        return intern(bits);
+    }
+
+    public boolean contains(String authority) {
+        Integer bit = BITS.get(authority);
+        return bit != null && bits.get(bit);
+    }
+
+    public boolean isEmpty() {
+        return bits.isEmpty();
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(authorities.size());
+        for (GrantedAuthority authority : authorities) {
+            names.add(authority.getAuthority());
+        }
+        return names;
+    }
+
+    /**
+     * The shared, unmodifiable authorities of this set in vocabulary order.
+     */
+    public List<GrantedAuthority> authorities() {
+        return authorities;
+    }
+
+    @Override
+    public String toString() {
+        return joined;
+    }
+
+    private static int bit(String authority) {
+        Integer bit = BITS.get(authority);
+        if (bit != null) {
+            return bit;
+        }
+        synchronized (BITS) {
+            return BITS.computeIfAbsent(authority, name -> {
+                AUTHORITIES.add(new SimpleGrantedAuthority(name));
+                return AUTHORITIES.size() - 1;
+            });
+        }
+    }
+
+    private static RoleSet intern(BitSet bits) {
+        RoleSet roleSet = INTERNED.get(bits);
+        if (roleSet != null) {
+            return roleSet;
+        }
+        return INTERNED.computeIfAbsent(bits, RoleSet::new);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.usermanagement;
+
+import java.util.concurrent.TimeUnit;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Records how long the wrapped encoder spends hashing and verifying passwords, which is
+ * where most of the time in sign-up and Basic-authenticated requests goes.
+ */
+public class TimedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchedTimer;
+
+    private final Timer mismatchedTimer;
+
+    public TimedPasswordEncoder(PasswordEncoder delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.encodeTimer = Timer.builder("auth.password.encode")
+            .description("Time spent hashing a password")
+            .register(meterRegistry);
+        this.matchedTimer = matchesTimer("match", meterRegistry);
+        this.mismatchedTimer = matchesTimer("mismatch", meterRegistry);
+    }
+
+    private static Timer matchesTimer(String outcome, MeterRegistry meterRegistry) {
+        return Timer.builder("auth.password.matches")
+            .description("Time spent verifying a password against its hash")
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return encodeTimer.record(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        long start = System.nanoTime();
+        boolean matches = delegate.matches(rawPassword, encodedPassword);
+        (matches ? matchedTimer : mismatchedTimer).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        return matches;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.usermanagement;
+
+import java.util.List;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Per-user not-before times in {@code user_token_revocations}, shared by every instance so a
+ * revocation on one of them rejects tokens on all of them. Times only move forward, so
+ * concurrent revocations keep the latest.
+ */
+@Repository
+public class TokenRevocationRepository {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns the not-before time for {@code username}, or {@code 0} when it was never
+     * revoked. Reads go to the primary so a revocation is seen as soon as it commits.
+     */
+    @Transactional
+    public long findNotBefore(String username) {
+        List<Long> notBefore = jdbcTemplate.queryForList(
+            "SELECT not_before FROM user_token_revocations WHERE username = ?", Long.class, username);
+        return notBefore.isEmpty() ? 0 : notBefore.get(0);
+    }
+
+    @Transactional
+    public void revoke(String username, long notBefore) {
+        if (raise(username, notBefore) > 0) {
+            return;
+        }
+        try {
+            jdbcTemplate.update(
+                "INSERT INTO user_token_revocations (username, not_before) VALUES (?, ?)", username, notBefore);
+        } catch (DuplicateKeyException e) {
+            raise(username, notBefore);
+        }
+    }
+
+    @Transactional
+    public int deleteRevokedBefore(long cutoff) {
+        return jdbcTemplate.update("DELETE FROM user_token_revocations WHERE not_before < ?", cutoff);
+    }
+
+    private int raise(String username, long notBefore) {
+        return jdbcTemplate.update(
+            "UPDATE user_token_revocations SET not_before = GREATEST(not_before, ?) WHERE username = ?",
+            notBefore, username);
+    }
+}
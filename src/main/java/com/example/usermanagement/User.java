@@ -1,22 +1,32 @@
 package com.example.usermanagement;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 import java.util.Set;
+import org.hibernate.annotations.BatchSize;
 import com.fasterxml.jackson.annotation.JsonIgnore;
-import jakarta.persistence.CascadeType;
+import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
+import jakarta.persistence.ElementCollection;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
-import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 
 @Entity
-@Table(name = "USERS")
+@Table(
+    name = "USERS",
+    indexes = @Index(name = User.EMAIL_INDEX, columnList = "email", unique = true))
 public class User {
 
+    static final String EMAIL_INDEX = "idx_users_email";
+
     @Id
     @Column(nullable = false)
     private String username;
@@ -29,10 +39,13 @@ public class User {
     @Column(nullable = false)
     private Boolean enabled;
 
+    // Plain names rather than entities: no per-row id, and changes are applied as a diff.
     @JsonIgnore
-    @OneToMany(cascade = CascadeType.ALL)
-    @JoinColumn(name = "username")
-    private Set<Authority> authorities;
+    @ElementCollection
+    @CollectionTable(name = "AUTHORITIES", joinColumns = @JoinColumn(name = "username"))
+    @Column(name = "authority", length = 128)
+    @BatchSize(size = 100)
+    private Set<String> authorities = new HashSet<>();
 
     private String email;
 
@@ -62,28 +75,30 @@ public class User {
         this.enabled = enabled;
     }
 
-    public Set<Authority> getAuthorities() {
+    public Set<String> getAuthorities() {
         return authorities;
     }
 
-    public void setAuthorities(Collection<? extends Authority> authorities) {
-        this.authorities = new HashSet<>(authorities);
+    /**
+     * Brings the authorities in line with {@code authorityNames} by removing and adding only
+     * the names that differ, so a managed user is updated row by row instead of having its
+     * whole collection deleted and reinserted.
+     */
+    public void setAuthorities(Collection<String> authorityNames) {
+        authorities.retainAll(authorityNames);
+        authorities.addAll(authorityNames);
     }
 
     public void setAuthorities(String... authorityNames) {
-        Set<Authority> authoritiesHolder = new HashSet<>();
-        for (String authorityName : authorityNames) {
-            authoritiesHolder.add(new Authority(authorityName));
-        }
-        this.authorities = authoritiesHolder;
+        setAuthorities(Arrays.asList(authorityNames));
     }
 
     public void setRoles(String... roleNames) {
-        Set<Authority> authoritiesHolder = new HashSet<>();
+        List<String> authorityNames = new ArrayList<>(roleNames.length);
         for (String roleName : roleNames) {
-            authoritiesHolder.add(new Authority("ROLE_" + roleName));
+            authorityNames.add("ROLE_" + roleName);
         }
-        this.authorities = authoritiesHolder;
+        setAuthorities(authorityNames);
     }
 
     public String getEmail() {
@@ -91,18 +106,21 @@ public class User {
     }
 
     public void setEmail(String email) {
-        this.email = email;
+        this.email = normalizeEmail(email);
+    }
+
+    /**
+     * Emails are stored trimmed and lower-cased so the unique index and {@code findByEmail}
+     * treat addresses differing only in case as the same.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
     }
 
     @Override
     public String toString() {
-        return String.format(
-            "User [username=%s, password=%s, enabled=%s, authorities=%s, email=%s]",
-            username,
-            password,
-            enabled,
-            authorities,
-            email);
+        // Never format the password hash or touch the lazy authorities collection here.
+        return "User [username=" + username + ", enabled=" + enabled + ", email=" + email + "]";
     }
 
     @Override
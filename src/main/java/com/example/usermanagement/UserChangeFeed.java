@@ -0,0 +1,101 @@
+package com.example.usermanagement;
+
+import java.time.Duration;
+import java.util.Collection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.example.usermanagement.UserChangedEvent.Change;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Polls {@code user_changes}, where every writer of {@code USERS} (each instance of this
+ * application through {@link #record(String, Change)}, and the reactive application) records
+ * each change in the same transaction, and republishes the rows as replayed
+ * {@link UserChangedEvent}s so every instance's caches drop the user within one poll interval.
+ * The instance that made a change also replays it, which only evicts what it already evicted.
+ *
+ * <p>Identity values may commit out of order, so besides rows past the last id seen every
+ * poll re-reads rows written within {@code app.users.change-feed.replay-window} and publishes
+ * those it has not published yet.
+ */
+@Component
+@Slf4j
+public class UserChangeFeed {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Value("${app.users.change-feed.replay-window:10s}")
+    private Duration replayWindow;
+
+    @Value("${app.users.change-feed.retention:1h}")
+    private Duration retention;
+
+    private long lastSeenId;
+
+    private Cache<Long, Boolean> publishedIds;
+
+    private static final String INSERT_CHANGE =
+        "INSERT INTO user_changes (username, change_type, changed_at) VALUES (?, ?, ?)";
+
+    @PostConstruct
+    public void skipExistingChanges() {
+        publishedIds = Caffeine.newBuilder()
+            .expireAfterWrite(replayWindow.multipliedBy(2))
+            .build();
+
+        // Caches start empty, so changes recorded before startup have nothing to evict.
+        Long maxId = jdbcTemplate.queryForObject("SELECT MAX(id) FROM user_changes", Long.class);
+        lastSeenId = maxId == null ? 0 : maxId;
+    }
+
+    /**
+     * Records a change; call it inside the transaction that writes it.
+     */
+    public void record(String username, Change change) {
+        jdbcTemplate.update(INSERT_CHANGE, username, change.name(), System.currentTimeMillis());
+    }
+
+    public void record(Collection<String> usernames, Change change) {
+        long now = System.currentTimeMillis();
+        jdbcTemplate.batchUpdate(
+            INSERT_CHANGE,
+            usernames.stream().map(username -> new Object[] {username, change.name(), now}).toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.change-feed.poll-interval:PT1S}")
+    public synchronized void poll() {
+        long since = System.currentTimeMillis() - replayWindow.toMillis();
+        jdbcTemplate.query(
+            "SELECT id, username, change_type FROM user_changes WHERE id > ? OR changed_at >= ? ORDER BY id",
+            resultSet -> {
+                long id = resultSet.getLong("id");
+                lastSeenId = Math.max(lastSeenId, id);
+                if (publishedIds.asMap().putIfAbsent(id, Boolean.TRUE) != null) {
+                    return;
+                }
+                applicationEventPublisher.publishEvent(new UserChangedEvent(
+                    resultSet.getString("username"),
+                    Change.valueOf(resultSet.getString("change_type")),
+                    true));
+            },
+            lastSeenId, since);
+    }
+
+    @Scheduled(fixedDelayString = "${app.users.change-feed.purge-interval:PT1H}")
+    public void purge() {
+        int purged = jdbcTemplate.update(
+            "DELETE FROM user_changes WHERE changed_at < ?", System.currentTimeMillis() - retention.toMillis());
+        log.debug("Purged {} user changes older than {}", purged, retention);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.usermanagement;
+
+/**
+ * A change to a user. {@code replayed} marks changes read back from {@code user_changes}, which
+ * may have been made by any writer of {@code USERS}, this instance included; {@link UserChangeFeed}
+ * republishes them here so local caches drop the user, while any shared state was already
+ * updated by the writer.
+ */
+public record UserChangedEvent(String username, Change change, boolean replayed) {
+
+    public UserChangedEvent(String username, Change change) {
+        this(username, change, false);
+    }
+
+    public enum Change {
+        CREATED,
+        UPDATED,
+        PASSWORD_CHANGED,
+        DELETED
+    }
+}
@@ -0,0 +1,336 @@
+package com.example.usermanagement;
+
+import java.text.Normalizer;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import com.example.usermanagement.UserChangedEvent.Change;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bloom filter over every username and email in {@code USERS}. Sign-up, email updates and
+ * imports on this instance add their keys as they commit. Rows written by other instances or
+ * by the reactive application are learned from the replayed {@link UserChangedEvent}s of the
+ * {@link UserChangeFeed}, which reads the user's current email from the primary. A Bloom filter
+ * cannot forget keys, so deleted accounts stay as false positives until the next rebuild, which
+ * re-reads the table through {@link UserStreamRepository} on a fixed delay. Until the first
+ * rebuild completes every key is reported as possibly present.
+ *
+ * <p>Negatives are therefore trusted by default: a key written elsewhere is missing for at most
+ * one feed poll interval. Setting {@code app.users.existence-filter.trust-negatives=false}
+ * confirms every negative with the database and counts the misses as {@code false-negative},
+ * which measures how often that window is hit. Authentication never consults the filter.
+ */
+@Component
+@Slf4j
+public class UserExistenceFilter {
+
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    private final UserStreamRepository userStreamRepository;
+
+    private final long expectedUsers;
+
+    private final double falsePositiveProbability;
+
+    private final boolean trustNegatives;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Object writeLock = new Object();
+
+    private volatile BloomFilter current;
+
+    private BloomFilter next;
+
+    private Set<String> recentKeys = new HashSet<>();
+
+    private final AtomicLong staleKeys = new AtomicLong();
+
+    private final Counter negativeCounter;
+
+    private final Counter confirmedCounter;
+
+    private final Counter falsePositiveCounter;
+
+    private final Counter falseNegativeCounter;
+
+    private final Timer rebuildTimer;
+
+    public UserExistenceFilter(
+        UserStreamRepository userStreamRepository,
+        @Value("${app.users.existence-filter.expected-users:1000000}") long expectedUsers,
+        @Value("${app.users.existence-filter.false-positive-probability:0.01}") double falsePositiveProbability,
+        @Value("${app.users.existence-filter.trust-negatives:true}") boolean trustNegatives,
+        MeterRegistry meterRegistry) {
+
+        this.userStreamRepository = userStreamRepository;
+        this.expectedUsers = expectedUsers;
+        this.falsePositiveProbability = falsePositiveProbability;
+        this.trustNegatives = trustNegatives;
+        this.meterRegistry = meterRegistry;
+
+        negativeCounter = meterRegistry.counter("users.existence-filter.lookups", "result", "negative");
+        confirmedCounter = meterRegistry.counter("users.existence-filter.lookups", "result", "confirmed");
+        falsePositiveCounter = meterRegistry.counter("users.existence-filter.lookups", "result", "false-positive");
+        falseNegativeCounter = meterRegistry.counter("users.existence-filter.lookups", "result", "false-negative");
+        rebuildTimer = meterRegistry.timer("users.existence-filter.rebuild");
+    }
+
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("users.existence-filter.expected-false-positive-probability", this,
+                filter -> filter.current == null ? 1.0 : filter.current.expectedFalsePositiveProbability())
+            .register(meterRegistry);
+        Gauge.builder("users.existence-filter.keys", this, filter -> filter.current == null ? 0 : filter.current.keys())
+            .register(meterRegistry);
+        Gauge.builder("users.existence-filter.stale-keys", staleKeys, AtomicLong::get)
+            .register(meterRegistry);
+    }
+
+    public boolean mightContainEmail(String email) {
+        BloomFilter filter = current;
+        return filter == null || email == null || filter.mightContain(emailKey(email));
+    }
+
+    /**
+     * Runs {@code loader} for the email, skipping it only when the filter rules the email out
+     * and negatives are trusted. Outcomes feed the lookup counters, whose {@code false-positive}
+     * share among absent keys is the observed false-positive rate. An email the filter missed
+     * is added, so the next lookup for it is answered as possibly present.
+     */
+    public <T> T findByEmail(String email, Function<String, T> loader) {
+        boolean mightContain = mightContainEmail(email);
+        if (!mightContain && trustNegatives) {
+            negativeCounter.increment();
+            return null;
+        }
+
+        T found = loader.apply(email);
+        if (current != null) {
+            if (mightContain) {
+                (found == null ? falsePositiveCounter : confirmedCounter).increment();
+            } else if (found == null) {
+                negativeCounter.increment();
+            } else {
+                falseNegativeCounter.increment();
+                addEmail(email);
+            }
+        }
+        return found;
+    }
+
+    public void add(String username, String email) {
+        synchronized (writeLock) {
+            addKey(usernameKey(username));
+            if (email != null) {
+                addKey(emailKey(email));
+            }
+        }
+    }
+
+    public void addEmail(String email) {
+        synchronized (writeLock) {
+            addKey(emailKey(email));
+        }
+    }
+
+    /**
+     * Learns the keys of users created or changed by another writer. The change row only names
+     * the user, so the email is read back from the primary; a user deleted since is skipped.
+     */
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        if (!event.replayed() || event.change() == Change.DELETED) {
+            return;
+        }
+        userStreamRepository.findUser(event.username(), resultSet -> add(
+            resultSet.getString("username"),
+            resultSet.getString("email")));
+    }
+
+    /**
+     * Records that a key has left the table. It stays in the filter until the next rebuild.
+     */
+    public void remove(String username) {
+        staleKeys.incrementAndGet();
+    }
+
+    /**
+     * Replaces the filter with one built from a full scan of {@code USERS}. Keys added while
+     * the scan runs go into both filters, and keys added since the previous rebuild are carried
+     * over in case the scan reads from a replica that has not caught up with them yet.
+     */
+    @Scheduled(
+        initialDelayString = "${app.users.existence-filter.initial-delay:PT0S}",
+        fixedDelayString = "${app.users.existence-filter.rebuild-interval:PT15M}")
+    public synchronized void rebuild() {
+        rebuildTimer.record(() -> {
+            BloomFilter previous = current;
+            long expectedKeys = 2 * Math.max(expectedUsers, previous == null ? 0 : previous.keys());
+            BloomFilter rebuilt = new BloomFilter(expectedKeys, falsePositiveProbability);
+
+            Set<String> carriedKeys;
+            synchronized (writeLock) {
+                next = rebuilt;
+                carriedKeys = recentKeys;
+                recentKeys = new HashSet<>();
+            }
+
+            try {
+                userStreamRepository.streamUsers(resultSet -> {
+                    rebuilt.put(usernameKey(resultSet.getString("username")));
+                    String email = resultSet.getString("email");
+                    if (email != null) {
+                        rebuilt.put(emailKey(email));
+                    }
+                });
+            } catch (RuntimeException e) {
+                synchronized (writeLock) {
+                    next = null;
+                    recentKeys.addAll(carriedKeys);
+                }
+                throw e;
+            }
+
+            synchronized (writeLock) {
+                carriedKeys.forEach(rebuilt::put);
+                current = rebuilt;
+                next = null;
+                staleKeys.set(0);
+            }
+            log.debug("Rebuilt user existence filter with {} keys", rebuilt.keys());
+        });
+    }
+
+    private void addKey(String key) {
+        BloomFilter filter = current;
+        if (filter != null) {
+            filter.put(key);
+        }
+        if (next != null) {
+            next.put(key);
+        }
+        recentKeys.add(key);
+    }
+
+    /**
+     * Keys are folded more coarsely than MySQL's default case- and accent-insensitive
+     * collation compares them, so two values the database treats as equal always share a key.
+     */
+    private static String usernameKey(String username) {
+        return "u:" + fold(username);
+    }
+
+    private static String emailKey(String email) {
+        return "e:" + fold(User.normalizeEmail(email));
+    }
+
+    private static String fold(String value) {
+        String decomposed = Normalizer.normalize(value.trim(), Normalizer.Form.NFKD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Fixed-size Bloom filter with lock-free inserts. Bit positions come from double hashing
+     * of one 64-bit hash per key.
+     */
+    static class BloomFilter {
+
+        private final AtomicLongArray words;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        private final AtomicLong keys = new AtomicLong();
+
+        BloomFilter(long expectedKeys, double falsePositiveProbability) {
+            long n = Math.max(expectedKeys, 1);
+            long bits = (long) Math.ceil(-n * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+            this.words = new AtomicLongArray((int) Math.min((bits + 63) / 64, Integer.MAX_VALUE));
+            this.bitCount = (long) words.length() * 64;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+        }
+
+        void put(String key) {
+            long hash = hash(key);
+            long h1 = hash;
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            boolean changed = false;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long value = words.get(word);
+                if ((value & mask) == 0) {
+                    words.getAndUpdate(word, existing -> existing | mask);
+                    changed = true;
+                }
+            }
+            if (changed) {
+                keys.incrementAndGet();
+            }
+        }
+
+        boolean mightContain(String key) {
+            long hash = hash(key);
+            long h1 = hash;
+            long h2 = mix(hash ^ 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long bit = Math.floorMod(h1 + i * h2, bitCount);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Approximate number of distinct keys, since a key whose bits were all set already is
+         * not counted.
+         */
+        long keys() {
+            return keys.get();
+        }
+
+        double expectedFalsePositiveProbability() {
+            long setBits = 0;
+            for (int i = 0; i < words.length(); i++) {
+                setBits += Long.bitCount(words.get(i));
+            }
+            return Math.pow((double) setBits / bitCount, hashCount);
+        }
+
+        private static long hash(String key) {
+            long hash = 0xCBF29CE484222325L;
+            for (int i = 0; i < key.length(); i++) {
+                hash ^= key.charAt(i);
+                hash *= 0x100000001B3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xFF51AFD7ED558CCDL;
+            value ^= value >>> 33;
+            value *= 0xC4CEB9FE1A85EC53L;
+            value ^= value >>> 33;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.usermanagement;
+
+import java.util.List;
+
+public record UserImportReport(long imported, long failed, List<RowError> errors) {
+
+    public record RowError(long line, String username, String message) {}
+}
@@ -0,0 +1,12 @@
+package com.example.usermanagement;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record UserImportRow(
+    String username,
+    String password,
+    String passwordHash,
+    String email,
+    String roles) {
+}
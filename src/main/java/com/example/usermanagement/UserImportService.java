@@ -0,0 +1,281 @@
+package com.example.usermanagement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import com.example.usermanagement.UserChangedEvent.Change;
+import com.example.usermanagement.UserImportReport.RowError;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Imports users from a CSV or NDJSON stream. Rows are read and processed in fixed-size
+ * chunks: plain passwords are hashed in parallel, and each chunk is written with JDBC
+ * batch inserts. A row that fails is reported without aborting the rest of the import.
+ */
+@Service
+@Slf4j
+public class UserImportService {
+
+    public static final MediaType TEXT_CSV = MediaType.parseMediaType("text/csv");
+
+    private static final Pattern PASSWORD_HASH = Pattern.compile(
+        "^(\\{bcrypt\\})?\\$2[aby]?\\$\\d{2}\\$[./A-Za-z0-9]{53}$"
+            + "|^\\{argon2\\}\\$argon2(id|i|d)\\$v=\\d+\\$m=\\d+,t=\\d+,p=\\d+\\$[A-Za-z0-9+/]+\\$[A-Za-z0-9+/]+$"
+            + "|^\\{pbkdf2\\}[0-9a-f]+$");
+
+    private static final Pattern ROLE_NAME = Pattern.compile("^[A-Z][A-Z0-9_]*$");
+
+    private static final int MAX_REPORTED_ERRORS = 1000;
+
+    @Autowired
+    private UserManagementRepository userManagementRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Autowired
+    private UserExistenceFilter userExistenceFilter;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    private final ObjectReader csvRowReader = new CsvMapper()
+        .enable(CsvParser.Feature.TRIM_SPACES)
+        .enable(CsvParser.Feature.SKIP_EMPTY_LINES)
+        .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+        .enable(CsvParser.Feature.FAIL_ON_MISSING_COLUMNS)
+        .readerFor(UserImportRow.class)
+        .with(CsvSchema.emptySchema().withHeader());
+
+    private final ForkJoinPool hashingPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+
+    @PreDestroy
+    public void shutdown() {
+        hashingPool.shutdownNow();
+    }
+
+    public UserImportReport importUsers(InputStream inputStream, MediaType contentType) throws IOException {
+        ImportProgress progress = new ImportProgress();
+        List<ParsedRow> chunk = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            if (TEXT_CSV.includes(contentType)) {
+                readCsv(reader, chunk, progress);
+            } else {
+                readNdjson(reader, chunk, progress);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, progress);
+        }
+        return progress.report();
+    }
+
+    private void readNdjson(BufferedReader reader, List<ParsedRow> chunk, ImportProgress progress) throws IOException {
+        ObjectReader rowReader = objectMapper.readerFor(UserImportRow.class);
+        long lineNumber = 0;
+        String line;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+
+            try {
+                accept(new ParsedRow(lineNumber, rowReader.readValue(line)), chunk, progress);
+            } catch (JsonProcessingException e) {
+                progress.fail(lineNumber, null, "Malformed row: " + e.getOriginalMessage());
+            }
+        }
+    }
+
+    /**
+     * Reads RFC 4180 CSV with a header row. Quoted fields may contain commas, quotes and line
+     * breaks; a row is reported under the line it starts on.
+     */
+    private void readCsv(BufferedReader reader, List<ParsedRow> chunk, ImportProgress progress) throws IOException {
+        try (MappingIterator<UserImportRow> rows = csvRowReader.readValues(reader)) {
+            long lineNumber = 0;
+            while (true) {
+                try {
+                    if (!rows.hasNextValue()) {
+                        break;
+                    }
+                    lineNumber = rows.getCurrentLocation().getLineNr();
+                    accept(new ParsedRow(lineNumber, rows.nextValue()), chunk, progress);
+                } catch (JsonProcessingException e) {
+                    progress.fail(lineNumber, null, "Malformed row: " + e.getOriginalMessage());
+                }
+            }
+        }
+    }
+
+    private void accept(ParsedRow row, List<ParsedRow> chunk, ImportProgress progress) {
+        chunk.add(row);
+        if (chunk.size() == batchSize) {
+            importChunk(chunk, progress);
+            chunk.clear();
+        }
+    }
+
+    private void importChunk(List<ParsedRow> chunk, ImportProgress progress) {
+        List<PreparedUser> prepared;
+        try {
+            prepared = hashingPool.submit(() -> chunk.parallelStream().map(this::prepare).toList()).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while hashing imported passwords", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Failed to hash imported passwords", e.getCause());
+        }
+
+        Map<String, PreparedUser> candidates = new HashMap<>();
+        for (PreparedUser user : prepared) {
+            if (user.error() != null) {
+                progress.fail(user.line(), user.username(), user.error());
+            } else if (candidates.putIfAbsent(user.username(), user) != null) {
+                progress.fail(user.line(), user.username(), "Duplicate username in import.");
+            }
+        }
+
+        Set<String> existing = userManagementRepository.findExistingUsernames(candidates.keySet());
+        List<PreparedUser> inserts = new ArrayList<>(candidates.size());
+        for (PreparedUser user : candidates.values()) {
+            if (existing.contains(user.username())) {
+                progress.fail(user.line(), user.username(), "Username already exists.");
+            } else {
+                inserts.add(user);
+            }
+        }
+
+        if (inserts.isEmpty()) {
+            return;
+        }
+
+        try {
+            userManagementRepository.batchInsert(inserts.stream().map(PreparedUser::user).toList());
+            inserts.forEach(user -> progress.succeed(user));
+        } catch (DataAccessException batchFailure) {
+            log.debug("Batch insert failed, retrying {} rows individually", inserts.size(), batchFailure);
+            for (PreparedUser user : inserts) {
+                try {
+                    if (userManagementRepository.insertUser(user.user())) {
+                        progress.succeed(user);
+                    } else {
+                        progress.fail(user.line(), user.username(), "Username already exists.");
+                    }
+                } catch (EmailAlreadyInUseException e) {
+                    progress.fail(user.line(), user.username(), "Email already in use.");
+                } catch (DataAccessException e) {
+                    progress.fail(user.line(), user.username(), e.getMostSpecificCause().getMessage());
+                }
+            }
+        }
+    }
+
+    private PreparedUser prepare(ParsedRow parsedRow) {
+        UserImportRow row = parsedRow.row();
+        String username = row.username() == null ? null : row.username().trim();
+
+        if (username == null || username.isEmpty()) {
+            return PreparedUser.failed(parsedRow.line(), null, "Username not provided.");
+        }
+
+        String password;
+        if (row.passwordHash() != null) {
+            if (!PASSWORD_HASH.matcher(row.passwordHash()).matches()) {
+                return PreparedUser.failed(parsedRow.line(), username, "passwordHash is not a supported hash.");
+            }
+            password = row.passwordHash();
+        } else if (row.password() != null && !row.password().isEmpty()) {
+            password = passwordEncoder.encode(row.password());
+        } else {
+            return PreparedUser.failed(parsedRow.line(), username, "Password not provided.");
+        }
+
+        String[] roles = row.roles() == null || row.roles().isBlank()
+            ? new String[] {"USER"}
+            : row.roles().trim().split("\\s*;\\s*");
+        for (String role : roles) {
+            if (!ROLE_NAME.matcher(role).matches()) {
+                return PreparedUser.failed(parsedRow.line(), username, "Invalid role " + role + ".");
+            }
+        }
+
+        User user = new User();
+        user.setUsername(username);
+        user.setPassword(password);
+        user.setEmail(row.email());
+        user.setEnabled(true);
+        user.setRoles(roles);
+        return new PreparedUser(parsedRow.line(), username, user, null);
+    }
+
+    private record ParsedRow(long line, UserImportRow row) {}
+
+    private record PreparedUser(long line, String username, User user, String error) {
+
+        static PreparedUser failed(long line, String username, String error) {
+            return new PreparedUser(line, username, null, error);
+        }
+    }
+
+    private class ImportProgress {
+
+        private final List<RowError> errors = new ArrayList<>();
+
+        private long importedCount;
+
+        private long failedCount;
+
+        void succeed(PreparedUser user) {
+            importedCount++;
+            userExistenceFilter.add(user.username(), user.user().getEmail());
+            applicationEventPublisher.publishEvent(new UserChangedEvent(user.username(), Change.CREATED));
+        }
+
+        void fail(long line, String username, String message) {
+            failedCount++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(new RowError(line, username, message));
+            }
+        }
+
+        UserImportReport report() {
+            return new UserImportReport(importedCount, failedCount, errors);
+        }
+    }
+}
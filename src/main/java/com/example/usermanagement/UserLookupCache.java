@@ -0,0 +1,166 @@
+package com.example.usermanagement;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Bounded, expiring cache of {@link UserDetails} and {@link UserProfile} keyed by username.
+ * Entries are dropped whenever a {@link UserChangedEvent} is published for the user.
+ * Email lookups go through a small email-to-username index over the same entries.
+ *
+ * <p>Entries are only ever filled through {@link AsyncCaches#get}, which runs the load outside
+ * the cache's lock. An invalidation that arrives while a load for the same key is in flight
+ * removes it without waiting, and its result is never cached, so a value read before a change
+ * can never be put back afterwards.
+ *
+ * <p>For {@code app.datasource.replica.maximum-lag} after a user's entries are dropped, loads
+ * for that user run on the primary. A replica that has not yet applied the change would
+ * otherwise hand the old row straight back into the cache for a full time-to-live.
+ */
+@Component
+public class UserLookupCache implements UserCache {
+
+    private final AsyncCache<String, UserDetails> userDetailsCache;
+
+    private final AsyncCache<String, UserProfile> profileCache;
+
+    private final Cache<String, String> usernamesByEmail;
+
+    private final Cache<String, Boolean> recentlyChanged;
+
+    public UserLookupCache(
+        @Value("${app.cache.users.maximum-size:10000}") long maximumSize,
+        @Value("${app.cache.users.time-to-live:5m}") Duration timeToLive,
+        @Value("${app.datasource.replica.maximum-lag:5s}") Duration replicaMaximumLag,
+        MeterRegistry meterRegistry) {
+
+        userDetailsCache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .buildAsync();
+        profileCache = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .buildAsync();
+        usernamesByEmail = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .build();
+        recentlyChanged = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(replicaMaximumLag)
+            .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, userDetailsCache, "users.details");
+        CaffeineCacheMetrics.monitor(meterRegistry, profileCache, "users.profiles");
+        CaffeineCacheMetrics.monitor(meterRegistry, usernamesByEmail, "users.emails");
+    }
+
+    @Override
+    public UserDetails getUserFromCache(String username) {
+        UserDetails userDetails = AsyncCaches.getIfLoaded(userDetailsCache, username);
+        // Callers may erase credentials on what they are handed, so never expose the cached instance.
+        return userDetails == null
+            ? null
+            : org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+    }
+
+    /**
+     * Returns a copy of the cached details, loading them on a miss. The loader returns
+     * {@code null} for an unknown user, which is not cached.
+     */
+    public UserDetails getUserDetails(String username, Function<String, UserDetails> loader) {
+        UserDetails userDetails = AsyncCaches.get(userDetailsCache, username, name -> load(name, loader));
+        return userDetails == null
+            ? null
+            : org.springframework.security.core.userdetails.User.withUserDetails(userDetails).build();
+    }
+
+    @Override
+    public void putUserInCache(UserDetails user) {
+        userDetailsCache.put(user.getUsername(), CompletableFuture.completedFuture(user));
+    }
+
+    @Override
+    public void removeUserFromCache(String username) {
+        recentlyChanged.put(username, Boolean.TRUE);
+        userDetailsCache.synchronous().invalidate(username);
+    }
+
+    public UserProfile getProfile(String username, Function<String, UserProfile> loader) {
+        return AsyncCaches.get(profileCache, username, name -> load(name, loader));
+    }
+
+    /**
+     * Resolves the email through the index and serves the profile from the username-keyed
+     * cache. A profile loaded by email is only indexed, not cached: its key is not known
+     * before the load, so the load cannot run under that key's lock.
+     */
+    public UserProfile getProfileByEmail(
+        String email,
+        Function<String, UserProfile> emailLoader,
+        Function<String, UserProfile> usernameLoader) {
+
+        String username = usernamesByEmail.getIfPresent(email);
+        if (username != null) {
+            UserProfile profile = getProfile(username, usernameLoader);
+            // The user may have changed email since; only trust an entry that still agrees.
+            if (profile != null && email.equals(profile.email())) {
+                return profile;
+            }
+        }
+
+        UserProfile profile = emailLoader.apply(email);
+        if (profile != null) {
+            usernamesByEmail.put(email, profile.username());
+        }
+        return profile;
+    }
+
+    public void evict(String username) {
+        recentlyChanged.put(username, Boolean.TRUE);
+        userDetailsCache.synchronous().invalidate(username);
+        profileCache.synchronous().invalidate(username);
+    }
+
+    public void invalidateAll() {
+        userDetailsCache.synchronous().invalidateAll();
+        profileCache.synchronous().invalidateAll();
+        usernamesByEmail.invalidateAll();
+        recentlyChanged.invalidateAll();
+    }
+
+    public CacheStats userDetailsStats() {
+        return userDetailsCache.synchronous().stats();
+    }
+
+    public CacheStats profileStats() {
+        return profileCache.synchronous().stats();
+    }
+
+    private <T> T load(String username, Function<String, T> loader) {
+        return recentlyChanged.getIfPresent(username) == null
+            ? loader.apply(username)
+            : ReadWriteRoutingDataSource.onPrimary(() -> loader.apply(username));
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        evict(event.username());
+    }
+}
@@ -1,9 +1,20 @@
 package com.example.usermanagement;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
@@ -16,12 +27,18 @@ import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestMethod;
 import org.springframework.web.bind.annotation.RequestParam;
-import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.util.UriComponentsBuilder;
+import com.example.usermanagement.ProfileResponseCache.ProfileResponse;
+import com.example.usermanagement.UserChangedEvent.Change;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
@@ -31,22 +48,107 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 public class UserManagementController {
 
+    private static final int MAX_PAGE_SIZE = 1000;
+
     @Autowired
     private UserManagementRepository userManagementRepository;
 
+    @Autowired
+    private UserStreamRepository userStreamRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private UserExistenceFilter userExistenceFilter;
+
+    @Autowired
+    private ProfileResponseCache profileResponseCache;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
     @Autowired
     private PasswordResetService passwordResetService;
 
+    @Autowired
+    private RateLimiter rateLimiter;
+
+    @Autowired(required = false)
+    private AccessTokenService accessTokenService;
+
     @GetMapping("/admin/all-users")
-    public @ResponseBody Iterable<User> getAllUsers() {
-        return userManagementRepository.findAll();
+    public ResponseEntity<List<UserProfile>> getAllUsers(
+        @RequestParam(name = "after", defaultValue = "") String after,
+        @RequestParam(name = "size", defaultValue = "100") int size,
+        UriComponentsBuilder uriComponentsBuilder) {
+
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Slice<UserProfile> slice = userManagementRepository
+            .findProfilesByUsernameGreaterThanOrderByUsernameAsc(after, PageRequest.ofSize(pageSize));
+        List<UserProfile> users = slice.getContent();
+
+        if (!slice.hasNext()) {
+            return ResponseEntity.ok(users);
+        }
+
+        URI next = uriComponentsBuilder
+            .path("/home/admin/all-users")
+            .queryParam("after", users.get(users.size() - 1).username())
+            .queryParam("size", pageSize)
+            .build()
+            .toUri();
+
+        return ResponseEntity.ok()
+            .header(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"")
+            .body(users);
+    }
+
+    @GetMapping(path = "/admin/all-users", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.setRootValueSeparator(null);
+                userStreamRepository.streamUsers(resultSet -> {
+                    try {
+                        generator.writeStartObject();
+                        generator.writeStringField("username", resultSet.getString("username"));
+                        generator.writeStringField("email", resultSet.getString("email"));
+                        generator.writeEndObject();
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.APPLICATION_NDJSON)
+            .body(body);
+    }
+
+    @PostMapping(
+        path = "/admin/users/import",
+        consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<UserImportReport> importUsers(
+        @RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+        HttpServletRequest request) throws IOException {
+
+        return ResponseEntity.ok(userImportService.importUsers(request.getInputStream(), contentType));
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> logIn(
+    public ResponseEntity<Map<String, Object>> logIn(
         @AuthenticationPrincipal UserDetails userDetails,
         UriComponentsBuilder uriComponentsBuilder) {
 
@@ -55,21 +157,31 @@ public class UserManagementController {
             .buildAndExpand(userDetails.getUsername())
             .toUri();
 
+        if (accessTokenService != null) {
+            return ResponseEntity.ok()
+                .location(uri)
+                .body(Map.of(
+                    "access_token", accessTokenService.issue(userDetails),
+                    "token_type", "Bearer",
+                    "expires_in", accessTokenService.getTimeToLive().toSeconds()));
+        }
+
         return ResponseEntity.status(HttpStatus.FOUND).location(uri).build();
     }
 
     @PostMapping("/sign-up")
     public ResponseEntity<String> signUp(
         @RequestBody HashMap<String, String> requestBody,
-        UriComponentsBuilder uriComponentsBuilder) {
+        UriComponentsBuilder uriComponentsBuilder,
+        HttpServletRequest request) {
 
         if (!requestBody.containsKey("username") || (!requestBody.containsKey("password"))) {
             return ResponseEntity.badRequest().body("Username or password not provided.");
         }
 
-        if (userManagementRepository
-            .existsByUsername(requestBody.get("username"))) {
-            return ResponseEntity.badRequest().body("Username already exists.");
+        if (!rateLimiter.tryAcquireForClient("sign-up", request.getRemoteAddr())
+            || !rateLimiter.tryAcquireForTarget("sign-up", requestBody.get("username"))) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many requests.");
         }
 
         var user = new User();
@@ -78,9 +190,16 @@ public class UserManagementController {
         user.setRoles("USER");
         user.setEmail(requestBody.getOrDefault("email", null));
         user.setPassword(passwordEncoder.encode(requestBody.get("password")));
-        userManagementRepository.save(user);
 
-        user = userManagementRepository.findByUsername(user.getUsername());
+        try {
+            if (!userManagementRepository.insertUser(user)) {
+                return ResponseEntity.badRequest().body("Username already exists.");
+            }
+        } catch (EmailAlreadyInUseException e) {
+            return ResponseEntity.badRequest().body("Email already in use.");
+        }
+        userExistenceFilter.add(user.getUsername(), user.getEmail());
+        applicationEventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), Change.CREATED));
 
         URI uri = uriComponentsBuilder
             .path("/home/{username}/profile")
@@ -92,61 +211,90 @@ public class UserManagementController {
 
     @GetMapping("/{username}/profile")
     @PreAuthorize("#username == authentication.principal.username")
-    public ResponseEntity<User> getUserProfile(
+    public ResponseEntity<byte[]> getUserProfile(
         @PathVariable String username,
-        @AuthenticationPrincipal UserDetails userDetails) {
+        @AuthenticationPrincipal UserDetails userDetails,
+        WebRequest webRequest) {
 
-        User user = userManagementRepository.findByUsername(username);
+        ProfileResponse response = profileResponseCache.get(
+            username,
+            name -> userLookupCache.getProfile(name, userManagementRepository::findProfileByUsername));
 
-        if (user != null) {
-            return ResponseEntity.ok(user);
-        }
-        else {
+        if (response == null) {
             return ResponseEntity.notFound().build();
         }
+
+        if (webRequest.checkNotModified(response.eTag())) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+            .eTag(response.eTag())
+            .cacheControl(CacheControl.noCache().cachePrivate())
+            .contentType(MediaType.APPLICATION_JSON)
+            .body(response.body());
     }
 
     @PatchMapping("/{username}/update")
     @PreAuthorize("#username == authentication.principal.username")
-    public ResponseEntity<User> updateUserProfile(
+    public ResponseEntity<UserProfile> updateUserProfile(
         @PathVariable String username,
         @AuthenticationPrincipal UserDetails userDetails,
         @RequestBody HashMap<String, String> requestBody,
         HttpServletRequest request) throws ServletException {
 
-        User user = userManagementRepository.findByUsername(userDetails.getUsername());
+        Map<String, String> changes = new LinkedHashMap<>();
+        if (requestBody.containsKey("password")) {
+            changes.put("password", passwordEncoder.encode(requestBody.get("password")));
+        }
 
-        if (user == null) {
-            return ResponseEntity.notFound().build();
+        String email;
+        if (requestBody.containsKey("email")) {
+            email = User.normalizeEmail(requestBody.get("email"));
+            changes.put("email", email);
+        }
+        else {
+            UserProfile current = userLookupCache.getProfile(username, userManagementRepository::findProfileByUsername);
+            if (current == null) {
+                return ResponseEntity.notFound().build();
+            }
+            email = current.email();
         }
 
-        if (requestBody.containsKey("password")) {
-            user.setPassword(passwordEncoder.encode(requestBody.get("password")));
-            request.logout();
+        try {
+            if (!changes.isEmpty() && userManagementRepository.updateColumns(username, changes) == 0) {
+                return ResponseEntity.notFound().build();
+            }
+        } catch (EmailAlreadyInUseException e) {
+            return ResponseEntity.badRequest().build();
         }
 
-        if (requestBody.containsKey("email")) {
-            user.setEmail(requestBody.get("email"));
+        if (email != null && changes.containsKey("email")) {
+            userExistenceFilter.addEmail(email);
         }
 
-        userManagementRepository.save(user);
-        user = userManagementRepository.findByUsername(user.getUsername());
+        Change change = Change.UPDATED;
+        if (changes.containsKey("password")) {
+            change = Change.PASSWORD_CHANGED;
+            request.logout();
+        }
+        applicationEventPublisher.publishEvent(new UserChangedEvent(username, change));
 
-        return ResponseEntity.ok(user);
+        return ResponseEntity.ok(new UserProfile(username, email));
     }
 
     @DeleteMapping("/{username}/delete")
     @PreAuthorize("#username == authentication.principal.username")
-    public ResponseEntity<User> deleteUser(
+    public ResponseEntity<Void> deleteUser(
         @PathVariable String username,
         @AuthenticationPrincipal UserDetails userDetails,
         HttpServletRequest request) throws ServletException {
 
-        log.debug(userManagementRepository.findByUsername(username).toString());
-
-        if (userManagementRepository.existsByUsername(username)) {
+        if (userManagementRepository.deleteAccount(username) > 0) {
+            log.debug("Deleted user {}", username);
             request.logout();
-            userManagementRepository.deleteByUsername(username);
+            userExistenceFilter.remove(username);
+            applicationEventPublisher.publishEvent(new UserChangedEvent(username, Change.DELETED));
             return ResponseEntity.noContent().build();
         }
         else {
@@ -170,14 +318,36 @@ public class UserManagementController {
     @PostMapping("/forget-password")
     public ResponseEntity<String> forgetPassword(
         @RequestBody HashMap<String, String> requestBody,
-        UriComponentsBuilder uriComponentsBuilder) {
-        User user = userManagementRepository.findByEmail(requestBody.get("email"));
+        UriComponentsBuilder uriComponentsBuilder,
+        HttpServletRequest request) {
 
-        if (user == null) {
-            log.debug("No user exists with email " + requestBody.get("email"));
+        if (requestBody.get("email") == null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (!rateLimiter.tryAcquireForClient("forget-password", request.getRemoteAddr())
+            || !rateLimiter.tryAcquireForTarget("forget-password", requestBody.get("email"))) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body("Too many requests.");
+        }
+
+        String email = User.normalizeEmail(requestBody.get("email"));
+        UserProfile profile = userExistenceFilter.findByEmail(
+            email,
+            address -> userLookupCache.getProfileByEmail(
+                address,
+                userManagementRepository::findProfileByEmail,
+                userManagementRepository::findProfileByUsername));
+
+        if (profile == null) {
+            log.debug("No user exists with email {}", email);
             return ResponseEntity.badRequest().build();
         }
 
+        // The token only needs the user's identifier, so a detached reference stands in for the entity.
+        User user = new User();
+        user.setUsername(profile.username());
+        user.setEmail(profile.email());
+
         log.debug("Handling forget password request");
         passwordResetService.handleForgetPasswordRequest(user, uriComponentsBuilder);
 
@@ -194,9 +364,14 @@ public class UserManagementController {
             return ResponseEntity.badRequest().build();
         }
 
-        user.setPassword(passwordEncoder.encode(requestBody.get("password")));
+        int updated = userManagementRepository.updateColumns(
+            user.getUsername(),
+            Map.of("password", passwordEncoder.encode(requestBody.get("password"))));
 
-        userManagementRepository.save(user);
+        if (updated == 0) {
+            return ResponseEntity.badRequest().build();
+        }
+        applicationEventPublisher.publishEvent(new UserChangedEvent(user.getUsername(), Change.PASSWORD_CHANGED));
 
         return ResponseEntity.ok().body("Password reset.");
     }
@@ -1,16 +1,26 @@
 package com.example.usermanagement;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.transaction.annotation.Transactional;
 
-public interface UserManagementRepository extends CrudRepository<User, String> {
+public interface UserManagementRepository
+    extends CrudRepository<User, String>, UserManagementRepositoryCustom {
+
+    @Transactional(readOnly = true)
     User findByUsername(String username);
 
+    @Transactional(readOnly = true)
     User findByEmail(String email);
 
-    @Transactional
-    void deleteByUsername(String username);
+    @Transactional(readOnly = true)
+    UserProfile findProfileByUsername(String username);
+
+    @Transactional(readOnly = true)
+    UserProfile findProfileByEmail(String email);
 
-    boolean existsByUsername(String username);
+    @Transactional(readOnly = true)
+    Slice<UserProfile> findProfilesByUsernameGreaterThanOrderByUsernameAsc(String username, Pageable pageable);
 
 }
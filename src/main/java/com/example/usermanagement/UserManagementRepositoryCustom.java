@@ -0,0 +1,19 @@
+package com.example.usermanagement;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+public interface UserManagementRepositoryCustom {
+
+    Set<String> findExistingUsernames(Collection<String> usernames);
+
+    void batchInsert(List<User> users);
+
+    boolean insertUser(User user);
+
+    int updateColumns(String username, Map<String, ?> changes);
+
+    int deleteAccount(String username);
+}
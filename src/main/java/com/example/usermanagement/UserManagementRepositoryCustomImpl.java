@@ -0,0 +1,144 @@
+package com.example.usermanagement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.StringJoiner;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import com.example.usermanagement.UserChangedEvent.Change;
+
+/**
+ * Plain JDBC operations on {@code USERS} and {@code AUTHORITIES} for paths where going
+ * through the persistence context would cost extra round trips. Each write is recorded in
+ * the {@link UserChangeFeed} within its transaction.
+ */
+public class UserManagementRepositoryCustomImpl implements UserManagementRepositoryCustom {
+
+    private static final String INSERT_USER =
+        "INSERT INTO users (username, password, enabled, email) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_AUTHORITY =
+        "INSERT INTO authorities (username, authority) VALUES (?, ?)";
+
+    private static final Set<String> UPDATABLE_COLUMNS = Set.of("password", "email");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private UserChangeFeed userChangeFeed;
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<String> findExistingUsernames(Collection<String> usernames) {
+        if (usernames.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        return new HashSet<>(namedParameterJdbcTemplate.queryForList(
+            "SELECT username FROM users WHERE username IN (:usernames)",
+            Collections.singletonMap("usernames", usernames),
+            String.class));
+    }
+
+    @Override
+    @Transactional
+    public void batchInsert(List<User> users) {
+        List<Object[]> userRows = new ArrayList<>(users.size());
+        List<Object[]> authorityRows = new ArrayList<>(users.size());
+        for (User user : users) {
+            userRows.add(new Object[] {
+                user.getUsername(), user.getPassword(), user.getEnabled(), user.getEmail()});
+            for (String authority : user.getAuthorities()) {
+                authorityRows.add(new Object[] {user.getUsername(), authority});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_USER, userRows);
+        jdbcTemplate.batchUpdate(INSERT_AUTHORITY, authorityRows);
+        userChangeFeed.record(users.stream().map(User::getUsername).toList(), Change.CREATED);
+    }
+
+    @Override
+    @Transactional
+    public boolean insertUser(User user) {
+        try {
+            jdbcTemplate.update(
+                INSERT_USER, user.getUsername(), user.getPassword(), user.getEnabled(), user.getEmail());
+        } catch (DuplicateKeyException e) {
+            if (isDuplicateEmail(e)) {
+                throw new EmailAlreadyInUseException(e);
+            }
+            return false;
+        }
+
+        jdbcTemplate.batchUpdate(
+            INSERT_AUTHORITY,
+            user.getAuthorities().stream()
+                .map(authority -> new Object[] {user.getUsername(), authority})
+                .toList());
+        userChangeFeed.record(user.getUsername(), Change.CREATED);
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public int updateColumns(String username, Map<String, ?> changes) {
+        StringJoiner assignments = new StringJoiner(", ");
+        List<Object> arguments = new ArrayList<>(changes.size() + 1);
+        changes.forEach((column, value) -> {
+            if (!UPDATABLE_COLUMNS.contains(column)) {
+                throw new IllegalArgumentException("Column " + column + " cannot be updated");
+            }
+            assignments.add(column + " = ?");
+            arguments.add(value);
+        });
+        arguments.add(username);
+
+        int updated;
+        try {
+            updated = jdbcTemplate.update(
+                "UPDATE users SET " + assignments + " WHERE username = ?", arguments.toArray());
+        } catch (DuplicateKeyException e) {
+            if (isDuplicateEmail(e)) {
+                throw new EmailAlreadyInUseException(e);
+            }
+            throw e;
+        }
+
+        if (updated > 0) {
+            userChangeFeed.record(
+                username, changes.containsKey("password") ? Change.PASSWORD_CHANGED : Change.UPDATED);
+        }
+        return updated;
+    }
+
+    @Override
+    @Transactional
+    public int deleteAccount(String username) {
+        jdbcTemplate.update("DELETE FROM password_reset_token WHERE user_username = ?", username);
+        jdbcTemplate.update("DELETE FROM authorities WHERE username = ?", username);
+        int deleted = jdbcTemplate.update("DELETE FROM users WHERE username = ?", username);
+        if (deleted > 0) {
+            userChangeFeed.record(username, Change.DELETED);
+        }
+        return deleted;
+    }
+
+    private static boolean isDuplicateEmail(DuplicateKeyException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        return message != null && message.toLowerCase(Locale.ROOT).contains(User.EMAIL_INDEX);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.usermanagement;
+
+/**
+ * Public view of a user as returned by the profile and listing endpoints. Repositories
+ * project straight into it so only {@code username} and {@code email} are selected.
+ */
+public record UserProfile(String username, String email) {}
@@ -0,0 +1,51 @@
+package com.example.usermanagement;
+
+import java.util.Date;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+@Entity
+@Table(
+    name = "user_sessions",
+    indexes = @Index(name = "idx_user_sessions_username", columnList = "username"))
+public class UserSession {
+
+    @Id
+    private String sessionId;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Date lastRequest;
+
+    private boolean expired;
+
+    public UserSession() {}
+
+    public UserSession(String sessionId, String username, Date lastRequest) {
+        this.sessionId = sessionId;
+        this.username = username;
+        this.lastRequest = lastRequest;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getUsername() {
+        return username;
+    }
+
+    public Date getLastRequest() {
+        return lastRequest;
+    }
+
+    public boolean isExpired() {
+        return expired;
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.example.usermanagement;
+
+import java.util.Date;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+public interface UserSessionRepository extends CrudRepository<UserSession, String> {
+
+    List<UserSession> findByUsername(String username);
+
+    @Query("select distinct s.username from UserSession s")
+    List<String> findAllUsernames();
+
+    @Modifying
+    @Transactional
+    @Query("update UserSession s set s.lastRequest = :lastRequest where s.sessionId = :sessionId")
+    int touch(@Param("sessionId") String sessionId, @Param("lastRequest") Date lastRequest);
+
+    @Modifying
+    @Transactional
+    @Query("update UserSession s set s.expired = true where s.sessionId = :sessionId")
+    int expire(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserSession s where s.sessionId = :sessionId")
+    int remove(@Param("sessionId") String sessionId);
+
+    @Modifying
+    @Transactional
+    @Query("delete from UserSession s where s.lastRequest < :cutoff")
+    int removeIdleSince(@Param("cutoff") Date cutoff);
+}
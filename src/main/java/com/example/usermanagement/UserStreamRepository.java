@@ -0,0 +1,52 @@
+package com.example.usermanagement;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Reads {@code USERS} through a forward-only, read-only JDBC cursor so callers can
+ * process every row without materializing entities in the persistence context.
+ */
+@Repository
+public class UserStreamRepository {
+
+    private static final String SELECT_USERS =
+        "SELECT username, email FROM users ORDER BY username";
+
+    private static final String SELECT_USER =
+        "SELECT username, email FROM users WHERE username = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${app.users.stream.fetch-size:500}")
+    private int fetchSize;
+
+    @Transactional(readOnly = true)
+    public void streamUsers(RowCallbackHandler rowCallbackHandler) {
+        jdbcTemplate.query(
+            connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                    SELECT_USERS,
+                    ResultSet.TYPE_FORWARD_ONLY,
+                    ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            },
+            rowCallbackHandler);
+    }
+
+    /**
+     * Reads one user's row. It is deliberately not read-only, so it goes to the primary and
+     * sees a change another writer just committed even when the replica lags.
+     */
+    public void findUser(String username, RowCallbackHandler rowCallbackHandler) {
+        jdbcTemplate.query(SELECT_USER, rowCallbackHandler, username);
+    }
+}
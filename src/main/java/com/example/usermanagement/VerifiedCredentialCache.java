@@ -0,0 +1,110 @@
+package com.example.usermanagement;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers, per username, a keyed HMAC of the last password that passed a full
+ * {@code PasswordEncoder} check. The key is random per process, so nothing stored
+ * here can be used to recover or verify a password outside this JVM.
+ * <p>
+ * Callers take a {@link #generation(String)} before the full check and hand it to
+ * {@link #remember(String, String, long)}, so a check that raced with a password change
+ * or deletion cannot put the old password back after the invalidation.
+ */
+@Component
+public class VerifiedCredentialCache {
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private final Cache<String, byte[]> verifiedCredentials;
+
+    private final Cache<String, Long> invalidatedAt;
+
+    private final AtomicLong generations = new AtomicLong();
+
+    private volatile long allInvalidatedAt;
+
+    private final SecretKeySpec key;
+
+    public VerifiedCredentialCache(
+        @Value("${app.auth.credential-cache.maximum-size:10000}") long maximumSize,
+        @Value("${app.auth.credential-cache.time-to-live:5m}") Duration timeToLive,
+        MeterRegistry meterRegistry) {
+
+        verifiedCredentials = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .recordStats()
+            .build();
+
+        invalidatedAt = Caffeine.newBuilder()
+            .maximumSize(maximumSize)
+            .expireAfterWrite(timeToLive)
+            .build();
+
+        byte[] secret = new byte[32];
+        new SecureRandom().nextBytes(secret);
+        key = new SecretKeySpec(secret, ALGORITHM);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, verifiedCredentials, "auth.verified-credentials");
+    }
+
+    public boolean matches(String username, String rawPassword) {
+        byte[] expected = verifiedCredentials.getIfPresent(username);
+        return expected != null && MessageDigest.isEqual(expected, digest(username, rawPassword));
+    }
+
+    public long generation(String username) {
+        return generations.get();
+    }
+
+    public void remember(String username, String rawPassword, long generation) {
+        byte[] digest = digest(username, rawPassword);
+        verifiedCredentials.asMap().compute(username, (name, current) -> {
+            Long invalidated = invalidatedAt.getIfPresent(name);
+            boolean stale = allInvalidatedAt > generation || invalidated != null && invalidated > generation;
+            return stale ? current : digest;
+        });
+    }
+
+    public void invalidate(String username) {
+        invalidatedAt.put(username, generations.incrementAndGet());
+        verifiedCredentials.invalidate(username);
+    }
+
+    public void invalidateAll() {
+        allInvalidatedAt = generations.incrementAndGet();
+        verifiedCredentials.invalidateAll();
+    }
+
+    @EventListener
+    public void onUserChanged(UserChangedEvent event) {
+        invalidate(event.username());
+    }
+
+    private byte[] digest(String username, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            mac.update(username.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HMAC-SHA256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+-- The schema Hibernate created from the original entities. Databases that predate Flyway are
+-- baselined at this version, so everything added since lives in later migrations.
+
+CREATE TABLE users (
+    username VARCHAR(255) NOT NULL,
+    password VARCHAR(255) NOT NULL,
+    enabled BOOLEAN NOT NULL,
+    email VARCHAR(255),
+    PRIMARY KEY (username)
+);
+
+CREATE TABLE authorities (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255),
+    authority VARCHAR(128),
+    PRIMARY KEY (id),
+    CONSTRAINT fk_authorities_users FOREIGN KEY (username) REFERENCES users (username)
+);
+
+CREATE TABLE password_reset_token (
+    id BIGINT NOT NULL,
+    user_username VARCHAR(255),
+    token_value VARCHAR(255),
+    expiry_date TIMESTAMP(6),
+    PRIMARY KEY (id),
+    CONSTRAINT uk_password_reset_token_user UNIQUE (user_username),
+    CONSTRAINT fk_password_reset_token_users FOREIGN KEY (user_username) REFERENCES users (username)
+);
+
+CREATE SEQUENCE password_reset_token_seq START WITH 1 INCREMENT BY 50;
@@ -0,0 +1,3 @@
+UPDATE users SET email = LOWER(TRIM(email)) WHERE email IS NOT NULL;
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_users_email ON users (email);
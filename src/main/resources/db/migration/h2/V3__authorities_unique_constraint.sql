@@ -0,0 +1,6 @@
+DELETE FROM authorities a
+WHERE EXISTS (
+    SELECT 1 FROM authorities b
+    WHERE b.username = a.username AND b.authority = a.authority AND b.id < a.id);
+
+ALTER TABLE authorities ADD CONSTRAINT IF NOT EXISTS unique_username_authority UNIQUE (username, authority);
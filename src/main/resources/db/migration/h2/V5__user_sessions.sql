@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS user_sessions (
+    session_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    last_request TIMESTAMP(6) NOT NULL,
+    expired BOOLEAN NOT NULL,
+    PRIMARY KEY (session_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_sessions_username ON user_sessions (username);
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS user_changes (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    username VARCHAR(255) NOT NULL,
+    change_type VARCHAR(32) NOT NULL,
+    changed_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_user_changes_changed_at ON user_changes (changed_at);
@@ -0,0 +1,24 @@
+-- Lower-cases stored emails and creates the unique index on users.email for schemas that
+-- were created by Hibernate before migrations were introduced. Where several users share an
+-- email, the alphabetically first username keeps it and the others have it cleared.
+
+UPDATE users u
+JOIN (
+    SELECT LOWER(TRIM(email)) AS normalized_email, MIN(username) AS kept_username
+    FROM users
+    WHERE email IS NOT NULL
+    GROUP BY LOWER(TRIM(email))
+    HAVING COUNT(*) > 1
+) d ON LOWER(TRIM(u.email)) = d.normalized_email AND u.username <> d.kept_username
+SET u.email = NULL;
+
+UPDATE users SET email = LOWER(TRIM(email)) WHERE email IS NOT NULL;
+
+SET @index_exists = (
+    SELECT COUNT(*)
+    FROM information_schema.statistics
+    WHERE table_schema = DATABASE() AND table_name = 'users' AND index_name = 'idx_users_email');
+SET @ddl = IF(@index_exists = 0, 'CREATE UNIQUE INDEX idx_users_email ON users (email)', 'DO 0');
+PREPARE create_index FROM @ddl;
+EXECUTE create_index;
+DEALLOCATE PREPARE create_index;
@@ -0,0 +1,16 @@
+-- Removes duplicate grants and adds the unique constraint unless the schema Hibernate created
+-- already has it.
+
+DELETE a FROM authorities a
+JOIN authorities b ON b.username = a.username AND b.authority = a.authority AND b.id < a.id;
+
+SET @constraint_exists = (
+    SELECT COUNT(*)
+    FROM information_schema.table_constraints
+    WHERE table_schema = DATABASE() AND table_name = 'authorities' AND constraint_name = 'unique_username_authority');
+SET @ddl = IF(@constraint_exists = 0,
+    'ALTER TABLE authorities ADD CONSTRAINT unique_username_authority UNIQUE (username, authority)',
+    'DO 0');
+PREPARE add_constraint FROM @ddl;
+EXECUTE add_constraint;
+DEALLOCATE PREPARE add_constraint;
@@ -0,0 +1,3 @@
+CREATE UNIQUE INDEX idx_password_reset_token_value ON password_reset_token (token_value);
+
+CREATE INDEX idx_password_reset_token_expiry ON password_reset_token (expiry_date);
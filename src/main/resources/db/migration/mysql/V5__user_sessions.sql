@@ -0,0 +1,9 @@
+CREATE TABLE user_sessions (
+    session_id VARCHAR(255) NOT NULL,
+    username VARCHAR(255) NOT NULL,
+    last_request DATETIME(6) NOT NULL,
+    expired BIT NOT NULL,
+    PRIMARY KEY (session_id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_user_sessions_username ON user_sessions (username);
@@ -0,0 +1,7 @@
+CREATE TABLE user_token_revocations (
+    username VARCHAR(255) NOT NULL,
+    not_before BIGINT NOT NULL,
+    PRIMARY KEY (username)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_user_token_revocations_not_before ON user_token_revocations (not_before);
@@ -0,0 +1,9 @@
+CREATE TABLE user_changes (
+    id BIGINT NOT NULL AUTO_INCREMENT,
+    username VARCHAR(255) NOT NULL,
+    change_type VARCHAR(32) NOT NULL,
+    changed_at BIGINT NOT NULL,
+    PRIMARY KEY (id)
+) ENGINE=InnoDB;
+
+CREATE INDEX idx_user_changes_changed_at ON user_changes (changed_at);
@@ -0,0 +1,169 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.time.Duration;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@AutoConfigureMockMvc
+@SpringBootTest
+@TestPropertySource(
+    locations = "classpath:application-test.properties",
+    properties = {
+        "app.auth.mode=token",
+        "app.auth.token.secret=" + AccessTokenAuthenticationTests.SECRET
+    })
+class AccessTokenAuthenticationTests {
+
+    static final String SECRET = "c2hhcmVkLWFjY2Vzcy10b2tlbi1zZWNyZXQtZm9yLXRlc3Q=";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserManagementRepository userManagementRepository;
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private VerifiedCredentialCache verifiedCredentialCache;
+
+    @Autowired
+    private ProfileResponseCache profileResponseCache;
+
+    @Autowired
+    private TokenRevocationRepository tokenRevocationRepository;
+
+    @BeforeEach
+    public void resetUserData() {
+        userManagementRepository.deleteAll();
+        userLookupCache.invalidateAll();
+        verifiedCredentialCache.invalidateAll();
+        profileResponseCache.invalidateAll();
+
+        User user = new User();
+        user.setUsername("user");
+        user.setPassword(passwordEncoder.encode("user-password"));
+        user.setEmail("user@domain.com");
+        user.setEnabled(true);
+        user.setRoles("USER");
+
+        userManagementRepository.save(user);
+    }
+
+    @Test
+    void shouldIssueTokenOnLoginAndAuthenticateWithoutSession() throws Exception {
+        String token = logIn("user", "user-password");
+
+        MvcResult mvcResult = mockMvc
+            .perform(get("/home/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpectAll(
+                status().isOk(),
+                content().json("""
+                    {"username": "user", "email": "user@domain.com"}
+                    """))
+            .andReturn();
+
+        assertThat(mvcResult.getRequest().getSession(false)).isNull();
+
+        mockMvc
+            .perform(get("/home/admin/all-users").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldRejectTamperedToken() throws Exception {
+        String token = logIn("user", "user-password");
+        String tampered = token.substring(0, token.indexOf('.') - 1) + "A" + token.substring(token.indexOf('.'));
+
+        mockMvc
+            .perform(get("/home/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + tampered))
+            .andExpectAll(
+                status().isUnauthorized(),
+                header().string(HttpHeaders.WWW_AUTHENTICATE, "Bearer error=\"invalid_token\""));
+    }
+
+    @Test
+    void shouldRevokeTokensIssuedBeforePasswordChange() throws Exception {
+        String token = logIn("user", "user-password");
+
+        mockMvc
+            .perform(
+                patch("/home/user/update")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"password": "updatedPassword"}
+                        """))
+            .andExpect(status().isOk());
+
+        mockMvc
+            .perform(get("/home/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+            .andExpect(status().isUnauthorized());
+
+        String newToken = logIn("user", "updatedPassword");
+
+        mockMvc
+            .perform(get("/home/user/profile").header(HttpHeaders.AUTHORIZATION, "Bearer " + newToken))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void shouldRevokeTokensOnInstanceThatDidNotSeeThePasswordChange() throws Exception {
+        AccessTokenService otherInstance = new AccessTokenService(
+            SECRET, Duration.ofMinutes(15), 1000, Duration.ofSeconds(5), tokenRevocationRepository,
+            new SimpleMeterRegistry());
+        String token = logIn("user", "user-password");
+
+        mockMvc
+            .perform(
+                patch("/home/user/update")
+                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"password": "updatedPassword"}
+                        """))
+            .andExpect(status().isOk());
+
+        assertThat(otherInstance.verify(token)).isNull();
+        assertThat(otherInstance.verify(logIn("user", "updatedPassword"))).isNotNull();
+    }
+
+    private String logIn(String username, String password) throws Exception {
+        MvcResult mvcResult = mockMvc
+            .perform(post("/home/login").with(httpBasic(username, password)).with(csrf()))
+            .andExpectAll(
+                status().isOk(),
+                jsonPath("$.token_type").value("Bearer"))
+            .andReturn();
+
+        return objectMapper.readTree(mvcResult.getResponse().getContentAsString()).get("access_token").asText();
+    }
+}
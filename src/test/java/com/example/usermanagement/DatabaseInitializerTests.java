@@ -0,0 +1,50 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import java.util.Set;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@ActiveProfiles("seed")
+@TestPropertySource(locations = "classpath:application-test.properties")
+class DatabaseInitializerTests {
+
+    @Autowired
+    private DatabaseInitializer databaseInitializer;
+
+    @SpyBean
+    private UserManagementRepository userManagementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void deleteDefaultUsers() {
+        userManagementRepository.deleteAccount("defaultAdmin");
+        userManagementRepository.deleteAccount("defaultUser");
+    }
+
+    @Test
+    void shouldSkipAccountsInsertedByAnotherInstanceAfterLookup() {
+        // Another instance seeded between this instance's lookup and its inserts.
+        doReturn(Set.of()).when(userManagementRepository).findExistingUsernames(any());
+
+        databaseInitializer.init();
+
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM users WHERE username IN ('defaultAdmin', 'defaultUser')", Integer.class))
+            .isEqualTo(2);
+        assertThat(jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM authorities WHERE username = 'defaultAdmin'", Integer.class))
+            .isEqualTo(2);
+    }
+}
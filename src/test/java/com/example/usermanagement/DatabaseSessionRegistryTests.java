@@ -0,0 +1,89 @@
+package com.example.usermanagement;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
+import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+/**
+ * Runs two application instances against the same embedded database, standing in for two
+ * replicas sharing one MySQL schema, and checks that {@code maximumSessions(1)} holds across
+ * them.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class DatabaseSessionRegistryTests {
+
+    private ConfigurableApplicationContext firstInstance;
+
+    private ConfigurableApplicationContext secondInstance;
+
+    @BeforeAll
+    void startInstances() {
+        firstInstance = startInstance();
+        secondInstance = startInstance();
+    }
+
+    @AfterAll
+    void stopInstances() {
+        secondInstance.close();
+        firstInstance.close();
+    }
+
+    @Test
+    void shouldExpireSessionOnOtherInstanceAfterSecondLogin() throws Exception {
+        MockMvc first = mockMvc(firstInstance);
+        MockMvc second = mockMvc(secondInstance);
+
+        MockHttpSession firstSession = (MockHttpSession) first
+            .perform(post("/home/login").with(httpBasic("defaultUser", "defaultUserPassword")).with(csrf()))
+            .andReturn()
+            .getRequest()
+            .getSession();
+
+        MockHttpSession secondSession = (MockHttpSession) second
+            .perform(post("/home/login").with(httpBasic("defaultUser", "defaultUserPassword")).with(csrf()))
+            .andReturn()
+            .getRequest()
+            .getSession();
+
+        first
+            .perform(get("/home/defaultUser/profile").session(firstSession))
+            .andExpect(unauthenticated());
+
+        second
+            .perform(get("/home/defaultUser/profile").session(secondSession))
+            .andExpect(authenticated());
+    }
+
+    private static ConfigurableApplicationContext startInstance() {
+        return new SpringApplicationBuilder(UserManagementApplication.class)
+            .profiles("test", "seed")
+            .run(
+                "--server.port=0",
+                "--app.session-registry.store=database",
+                "--logging.level.com.example.usermanagement=INFO",
+                "--logging.level.org.springframework.security=INFO",
+                "--logging.level.org.springframework.security.web.FilterChainProxy=INFO",
+                "--spring.jpa.show-sql=false");
+    }
+
+    private static MockMvc mockMvc(ConfigurableApplicationContext context) {
+        return MockMvcBuilders
+            .webAppContextSetup((WebApplicationContext) context)
+            .apply(springSecurity())
+            .build();
+    }
+}
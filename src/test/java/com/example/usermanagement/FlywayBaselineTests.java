@@ -0,0 +1,83 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Boots the application against a database created by the pre-Flyway release, whose schema
+ * Hibernate generated from the entities. Flyway baselines it at V1 and must bring it up to date
+ * with the later migrations alone.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class FlywayBaselineTests {
+
+    private static final String URL = "jdbc:h2:mem:flyway-baseline;DB_CLOSE_DELAY=-1";
+
+    private final DriverManagerDataSource dataSource = new DriverManagerDataSource(URL, "sa", "");
+
+    private final JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+
+    private ConfigurableApplicationContext context;
+
+    @BeforeAll
+    void startApplication() {
+        new ResourceDatabasePopulator(new ClassPathResource("db/original-schema.sql")).execute(dataSource);
+        jdbcTemplate.update("INSERT INTO users (username, password, enabled, email) VALUES (?, ?, ?, ?)",
+            "originalUser", "{noop}originalUserPassword", true, "OriginalUser@Domain.com");
+        jdbcTemplate.update("INSERT INTO authorities (username, authority) VALUES (?, ?)",
+            "originalUser", "ROLE_USER");
+
+        context = new SpringApplicationBuilder(UserManagementApplication.class)
+            .profiles("test")
+            .run(
+                "--server.port=0",
+                "--spring.datasource.url=" + URL,
+                "--logging.level.com.example.usermanagement=INFO",
+                "--logging.level.org.springframework.security=INFO",
+                "--logging.level.org.springframework.security.web.FilterChainProxy=INFO",
+                "--spring.jpa.show-sql=false");
+    }
+
+    @AfterAll
+    void stopApplication() {
+        context.close();
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void shouldApplyMigrationsAddedAfterBaseline() {
+        assertThat(jdbcTemplate.queryForList(
+            "SELECT \"type\" || ':' || \"version\" FROM \"flyway_schema_history\""
+                + " WHERE \"success\" AND \"version\" IS NOT NULL ORDER BY \"installed_rank\"", String.class))
+            .containsExactly("BASELINE:1", "SQL:2", "SQL:3", "SQL:4", "SQL:5", "SQL:6", "SQL:7");
+        assertThat(indexExists("IDX_USERS_EMAIL")).isTrue();
+        assertThat(indexExists("IDX_PASSWORD_RESET_TOKEN_VALUE")).isTrue();
+        assertThat(indexExists("IDX_PASSWORD_RESET_TOKEN_EXPIRY")).isTrue();
+        assertThat(indexExists("IDX_USER_SESSIONS_USERNAME")).isTrue();
+    }
+
+    @Test
+    void shouldAuthenticateUserCreatedBeforeMigration() {
+        UserDetails userDetails = context.getBean(UserDetailsService.class).loadUserByUsername("originalUser");
+
+        assertThat(userDetails.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+        assertThat(context.getBean(UserManagementRepository.class).findByEmail("originaluser@domain.com"))
+            .isNotNull();
+    }
+
+    private boolean indexExists(String name) {
+        return jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM information_schema.indexes WHERE index_name = ?", Integer.class, name) > 0;
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.Date;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class InMemoryPasswordResetTokenStoreTests {
+
+    private static final long TICK_MILLIS = 10;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final InMemoryPasswordResetTokenStore store =
+        new InMemoryPasswordResetTokenStore(TICK_MILLIS, 16, meterRegistry);
+
+    @Test
+    void shouldExpireTokensWhenWheelPassesTheirSlot() throws Exception {
+        long now = System.currentTimeMillis();
+        store.save(token("expiring", "user", now + 5 * TICK_MILLIS));
+        // Expires many revolutions of the 16-slot wheel later, so its slot comes round first.
+        store.save(token("live", "user", now + 60_000));
+
+        store.advance();
+        assertThat(storedTokens()).isEqualTo(2);
+
+        Thread.sleep(10 * TICK_MILLIS);
+        store.advance();
+        assertThat(storedTokens()).isEqualTo(1);
+
+        Thread.sleep(40 * TICK_MILLIS);
+        store.advance();
+        assertThat(store.consume("expiring")).isNull();
+        assertThat(store.consume("live")).isNotNull();
+    }
+
+    @Test
+    void shouldRemoveOnlyTokensOfGivenUser() {
+        long expiry = System.currentTimeMillis() + 60_000;
+        store.save(token("first", "user", expiry));
+        store.save(token("second", "user", expiry));
+        store.save(token("other", "admin", expiry));
+
+        store.removeByUsername("user");
+
+        assertThat(store.consume("first")).isNull();
+        assertThat(store.consume("second")).isNull();
+        assertThat(store.consume("other")).isNotNull();
+    }
+
+    private double storedTokens() {
+        return meterRegistry.get("password-reset.tokens").gauge().value();
+    }
+
+    private static PasswordResetToken token(String tokenValue, String username, long expiryMillis) {
+        User user = new User();
+        user.setUsername(username);
+        return new PasswordResetToken(tokenValue, user, new Date(expiryMillis));
+    }
+}
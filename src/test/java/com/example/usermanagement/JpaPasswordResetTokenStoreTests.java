@@ -0,0 +1,78 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+@SpringBootTest
+@TestPropertySource(
+    locations = "classpath:application-test.properties",
+    properties = "app.password-reset.token-store=jpa")
+class JpaPasswordResetTokenStoreTests {
+
+    @Autowired
+    private PasswordResetTokenStore passwordResetTokenStore;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private UserManagementRepository userManagementRepository;
+
+    private User user;
+
+    @BeforeEach
+    void createUser() {
+        user = new User();
+        user.setUsername("tokenUser");
+        user.setPassword("{noop}tokenUser-password");
+        user.setEmail("tokenuser@domain.com");
+        user.setEnabled(true);
+        user.setRoles("USER");
+        userManagementRepository.save(user);
+    }
+
+    @AfterEach
+    void deleteUser() {
+        userManagementRepository.deleteAccount("tokenUser");
+    }
+
+    @Test
+    void shouldHandTokenToExactlyOneOfConcurrentConsumers() throws Exception {
+        String tokenValue = UUID.randomUUID().toString();
+        passwordResetTokenStore.save(new PasswordResetToken(tokenValue, user));
+
+        int consumers = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<PasswordResetToken>> results = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(consumers)) {
+            for (int i = 0; i < consumers; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return passwordResetTokenStore.consume(tokenValue);
+                }));
+            }
+            start.countDown();
+        }
+
+        long winners = 0;
+        for (Future<PasswordResetToken> result : results) {
+            if (result.get() != null) {
+                winners++;
+            }
+        }
+        assertThat(winners).isEqualTo(1);
+        assertThat(passwordResetTokenRepository.findByTokenValue(tokenValue)).isNull();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@SpringBootTest
+@TestPropertySource(
+    locations = "classpath:application-test.properties",
+    properties = {
+        "app.password-reset.token-store=jpa",
+        "app.password-reset.reaper.interval=PT1H",
+        "app.password-reset.reaper.batch-size=2"
+    })
+class PasswordResetTokenReaperTests {
+
+    @Autowired
+    private PasswordResetTokenReaper passwordResetTokenReaper;
+
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
+    @Autowired
+    private UserManagementRepository userManagementRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<String> usernames = new ArrayList<>();
+
+    @AfterEach
+    void deleteUsers() {
+        usernames.forEach(userManagementRepository::deleteAccount);
+    }
+
+    @Test
+    void shouldPurgeOnlyExpiredTokensAcrossSeveralBatches() {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 5; i++) {
+            saveToken("expired-" + i, new Date(now - 60_000 - i));
+        }
+        for (int i = 0; i < 2; i++) {
+            saveToken("live-" + i, new Date(now + 600_000));
+        }
+        double purgedBefore = meterRegistry.counter("password-reset.tokens.purged").count();
+
+        passwordResetTokenReaper.purgeExpiredTokens();
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(passwordResetTokenRepository.findByTokenValue("expired-" + i)).isNull();
+        }
+        for (int i = 0; i < 2; i++) {
+            assertThat(passwordResetTokenRepository.findByTokenValue("live-" + i)).isNotNull();
+        }
+        assertThat(meterRegistry.counter("password-reset.tokens.purged").count() - purgedBefore).isEqualTo(5);
+    }
+
+    private void saveToken(String tokenValue, Date expiryDate) {
+        User user = new User();
+        user.setUsername("reaper-" + tokenValue);
+        user.setPassword("{noop}reaper-password");
+        user.setEmail(tokenValue + "@reaper.test");
+        user.setEnabled(true);
+        user.setRoles("USER");
+        userManagementRepository.save(user);
+        usernames.add(user.getUsername());
+
+        passwordResetTokenRepository.save(new PasswordResetToken(tokenValue, user, expiryDate));
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class ProfileResponseCacheTests {
+
+    private final ProfileResponseCache profileResponseCache =
+        new ProfileResponseCache(100, Duration.ofMinutes(5), new ObjectMapper(), new SimpleMeterRegistry());
+
+    @Test
+    void shouldNotCacheResponseLoadedBeforeConcurrentBump() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread reader = Thread.ofPlatform().start(() -> profileResponseCache.get("user", username -> {
+            loading.countDown();
+            await(release);
+            return new UserProfile("user", "user@domain.com");
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The load is still blocked, so returning here shows invalidation does not wait for it.
+        profileResponseCache.bump("user");
+        assertThat(reader.isAlive()).isTrue();
+        release.countDown();
+        reader.join(5000);
+
+        ProfileResponseCache.ProfileResponse response =
+            profileResponseCache.get("user", username -> new UserProfile("user", "updateduser@domain.com"));
+        assertThat(new String(response.body(), StandardCharsets.UTF_8)).contains("updateduser@domain.com");
+    }
+
+    @Test
+    void shouldKeepTagOfUnchangedBodyAfterBump() {
+        String before = profileResponseCache.get("user", username -> new UserProfile("user", "user@domain.com")).eTag();
+
+        profileResponseCache.bump("user");
+
+        assertThat(profileResponseCache.get("user", username -> new UserProfile("user", "user@domain.com")).eTag())
+            .isEqualTo(before);
+    }
+
+    @Test
+    void shouldIssueNewTagForChangedBody() {
+        String before = profileResponseCache.get("user", username -> new UserProfile("user", "user@domain.com")).eTag();
+
+        profileResponseCache.bump("user");
+
+        assertThat(profileResponseCache.get("user", username -> new UserProfile("user", "updateduser@domain.com")).eTag())
+            .isNotEqualTo(before);
+    }
+
+    @Test
+    void shouldIssueSameTagOnEveryInstance() {
+        ProfileResponseCache otherInstance =
+            new ProfileResponseCache(100, Duration.ofMinutes(5), new ObjectMapper(), new SimpleMeterRegistry());
+
+        assertThat(otherInstance.get("user", username -> new UserProfile("user", "user@domain.com")).eTag())
+            .isEqualTo(profileResponseCache.get("user", username -> new UserProfile("user", "user@domain.com")).eTag());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Boots the application against two separate in-memory H2 databases, one as the primary and
+ * one as the replica, and checks which of them each kind of access lands on. The replica is
+ * seeded directly so that rows only it holds reveal a read served from it.
+ */
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ReadWriteRoutingDataSourceTests {
+
+    private static final String PRIMARY_URL = "jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1";
+
+    private static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+
+    private final JdbcTemplate primary = new JdbcTemplate(new DriverManagerDataSource(PRIMARY_URL, "sa", ""));
+
+    private final JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+
+    private ConfigurableApplicationContext context;
+
+    @BeforeAll
+    void startApplication() {
+        Flyway.configure()
+            .dataSource(replica.getDataSource())
+            .locations("classpath:db/migration/h2")
+            .load()
+            .migrate();
+        replica.update("INSERT INTO users (username, password, enabled, email) VALUES (?, ?, ?, ?)",
+            "replicaUser", "{noop}replicaUserPassword", true, "replicauser@domain.com");
+        replica.update("INSERT INTO authorities (username, authority) VALUES (?, ?)",
+            "replicaUser", "ROLE_USER");
+
+        context = new SpringApplicationBuilder(UserManagementApplication.class)
+            .profiles("test")
+            .run(
+                "--server.port=0",
+                "--app.datasource.routing.enabled=true",
+                "--app.datasource.primary.url=" + PRIMARY_URL,
+                "--app.datasource.replica.url=" + REPLICA_URL,
+                "--logging.level.com.example.usermanagement=INFO",
+                "--logging.level.org.springframework.security=INFO",
+                "--logging.level.org.springframework.security.web.FilterChainProxy=INFO",
+                "--spring.jpa.show-sql=false");
+    }
+
+    @AfterAll
+    void stopApplication() {
+        context.close();
+    }
+
+    @Test
+    void shouldServeReadOnlyRepositoryQueriesFromReplica() {
+        UserManagementRepository repository = context.getBean(UserManagementRepository.class);
+
+        assertThat(repository.findByUsername("replicaUser")).isNotNull();
+        assertThat(repository.findByEmail("replicauser@domain.com")).isNotNull();
+    }
+
+    @Test
+    void shouldServeAuthenticationQueriesFromReplica() {
+        UserDetails userDetails = context.getBean(UserDetailsService.class).loadUserByUsername("replicaUser");
+
+        assertThat(userDetails.getAuthorities()).extracting("authority").containsExactly("ROLE_USER");
+    }
+
+    @Test
+    void shouldFillCachesFromPrimaryRightAfterChange() {
+        // The replica has not applied the email change the primary already holds.
+        primary.update("INSERT INTO users (username, password, enabled, email) VALUES (?, ?, ?, ?)",
+            "laggingUser", "{noop}laggingUserPassword", true, "updated@domain.com");
+        replica.update("INSERT INTO users (username, password, enabled, email) VALUES (?, ?, ?, ?)",
+            "laggingUser", "{noop}laggingUserPassword", true, "stale@domain.com");
+        UserLookupCache userLookupCache = context.getBean(UserLookupCache.class);
+        UserManagementRepository repository = context.getBean(UserManagementRepository.class);
+
+        assertThat(userLookupCache.getProfile("laggingUser", repository::findProfileByUsername).email())
+            .isEqualTo("stale@domain.com");
+
+        context.publishEvent(new UserChangedEvent("laggingUser", UserChangedEvent.Change.UPDATED));
+
+        assertThat(userLookupCache.getProfile("laggingUser", repository::findProfileByUsername).email())
+            .isEqualTo("updated@domain.com");
+    }
+
+    @Test
+    void shouldSendWritesToPrimary() {
+        User user = new User();
+        user.setUsername("primaryUser");
+        user.setPassword("{noop}primaryUserPassword");
+        user.setEmail("primaryuser@domain.com");
+        user.setEnabled(true);
+        user.setRoles("USER");
+        context.getBean(UserManagementRepository.class).save(user);
+
+        String countByUsername = "SELECT COUNT(*) FROM users WHERE username = 'primaryUser'";
+        assertThat(primary.queryForObject(countByUsername, Integer.class)).isEqualTo(1);
+        assertThat(replica.queryForObject(countByUsername, Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldReportPoolWaitPerPool() {
+        context.getBean(UserManagementRepository.class).findByUsername("replicaUser");
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "primary").timer()).isNotNull();
+        assertThat(meterRegistry.find("hikaricp.connections.acquire").tag("pool", "replica").timer()).isNotNull();
+    }
+}
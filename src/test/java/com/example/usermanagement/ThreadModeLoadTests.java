@@ -0,0 +1,122 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Boots the application once on the default Tomcat pool and once on virtual threads and
+ * replays the same authenticated profile traffic against both. Run with
+ * {@code ./gradlew loadTest}.
+ */
+@Tag("load")
+@Slf4j
+class ThreadModeLoadTests {
+
+    private static final int CONCURRENCY = 400;
+
+    private static final int REQUESTS = 5_000;
+
+    private static final String AUTHORIZATION = "Basic " + Base64.getEncoder()
+        .encodeToString("defaultUser:defaultUserPassword".getBytes(StandardCharsets.UTF_8));
+
+    @Test
+    void compareVirtualThreadsWithPlatformThreadPool() throws Exception {
+        LoadResult platform = run(false);
+        LoadResult virtual = run(true);
+
+        log.info("platform threads: {}", platform);
+        log.info("virtual threads:  {}", virtual);
+
+        assertThat(platform.errors()).isZero();
+        assertThat(virtual.errors()).isZero();
+    }
+
+    private LoadResult run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UserManagementApplication.class)
+            .profiles("test", "seed")
+            .run(
+                "--server.port=0",
+                "--app.threads.virtual.enabled=" + virtualThreads,
+                "--logging.level.com.example.usermanagement=INFO",
+                "--logging.level.org.springframework.security=INFO",
+                "--logging.level.org.springframework.security.web.FilterChainProxy=INFO",
+                "--spring.jpa.show-sql=false")) {
+
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI profile = URI.create("http://localhost:" + port + "/home/defaultUser/profile");
+            return replay(profile);
+        }
+    }
+
+    private LoadResult replay(URI uri) throws InterruptedException {
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(REQUESTS));
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger remaining = new AtomicInteger(REQUESTS);
+        HttpRequest request = HttpRequest.newBuilder(uri).header("Authorization", AUTHORIZATION).GET().build();
+        HttpClient httpClient = HttpClient.newHttpClient();
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            long started = System.nanoTime();
+            for (int i = 0; i < CONCURRENCY; i++) {
+                clients.execute(() -> {
+                    while (remaining.getAndDecrement() > 0) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() != 200) {
+                                errors.incrementAndGet();
+                            }
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                        latencies.add(System.nanoTime() - sent);
+                    }
+                });
+            }
+            clients.shutdown();
+            clients.awaitTermination(5, TimeUnit.MINUTES);
+            long elapsed = System.nanoTime() - started;
+
+            List<Long> sorted = new ArrayList<>(latencies);
+            Collections.sort(sorted);
+            return new LoadResult(
+                sorted.size() * 1e9 / elapsed,
+                percentile(sorted, 0.50),
+                percentile(sorted, 0.99),
+                errors.get());
+        }
+    }
+
+    private static double percentile(List<Long> sortedNanos, double percentile) {
+        int index = (int) Math.ceil(percentile * sortedNanos.size()) - 1;
+        return sortedNanos.get(Math.max(index, 0)) / 1e6;
+    }
+
+    private record LoadResult(double requestsPerSecond, double p50Millis, double p99Millis, int errors) {
+
+        @Override
+        public String toString() {
+            return String.format(
+                "%.0f req/s, p50 %.1f ms, p99 %.1f ms, %d errors",
+                requestsPerSecond, p50Millis, p99Millis, errors);
+        }
+    }
+}
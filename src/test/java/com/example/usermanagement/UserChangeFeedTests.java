@@ -0,0 +1,96 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * Stands in for the reactive application, or another instance, by writing to {@code USERS}
+ * without publishing an event, and checks that the next poll drops what this instance had cached.
+ */
+@SpringBootTest
+@TestPropertySource(
+    locations = "classpath:application-test.properties",
+    properties = "app.users.change-feed.poll-interval=PT1H")
+class UserChangeFeedTests {
+
+    @Autowired
+    private UserChangeFeed userChangeFeed;
+
+    @Autowired
+    private UserLookupCache userLookupCache;
+
+    @Autowired
+    private ProfileResponseCache profileResponseCache;
+
+    @Autowired
+    private UserManagementRepository userManagementRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void createUser() {
+        User user = new User();
+        user.setUsername("feedUser");
+        user.setPassword("{noop}feedUser-password");
+        user.setEmail("feeduser@domain.com");
+        user.setEnabled(true);
+        user.setRoles("USER");
+        userManagementRepository.save(user);
+    }
+
+    @AfterEach
+    void deleteUser() {
+        userManagementRepository.deleteAccount("feedUser");
+        userChangeFeed.poll();
+    }
+
+    @Test
+    void shouldEvictCachedProfileChangedByAnotherWriter() {
+        assertThat(userLookupCache.getProfile("feedUser", userManagementRepository::findProfileByUsername).email())
+            .isEqualTo("feeduser@domain.com");
+        String eTag = profileResponseCache.get("feedUser", userManagementRepository::findProfileByUsername).eTag();
+
+        jdbcTemplate.update("UPDATE users SET email = 'moved@domain.com' WHERE username = 'feedUser'");
+        jdbcTemplate.update("INSERT INTO user_changes (username, change_type, changed_at) VALUES (?, ?, ?)",
+            "feedUser", "UPDATED", System.currentTimeMillis());
+
+        userChangeFeed.poll();
+
+        assertThat(userLookupCache.getProfile("feedUser", userManagementRepository::findProfileByUsername).email())
+            .isEqualTo("moved@domain.com");
+        assertThat(profileResponseCache.get("feedUser", userManagementRepository::findProfileByUsername).eTag())
+            .isNotEqualTo(eTag);
+    }
+
+    @Test
+    void shouldEvictCachedProfileChangedByAnotherInstance() {
+        assertThat(userLookupCache.getProfile("feedUser", userManagementRepository::findProfileByUsername).email())
+            .isEqualTo("feeduser@domain.com");
+
+        userManagementRepository.updateColumns("feedUser", Map.of("email", "moved@domain.com"));
+
+        userChangeFeed.poll();
+
+        assertThat(userLookupCache.getProfile("feedUser", userManagementRepository::findProfileByUsername).email())
+            .isEqualTo("moved@domain.com");
+    }
+
+    @Test
+    void shouldRecordPasswordChangesAndDeletions() {
+        userManagementRepository.updateColumns("feedUser", Map.of("password", "{noop}changed"));
+        userManagementRepository.deleteAccount("feedUser");
+
+        assertThat(jdbcTemplate.queryForList(
+            "SELECT change_type FROM user_changes WHERE username = 'feedUser' ORDER BY id DESC LIMIT 2",
+            String.class))
+            .containsExactly("DELETED", "PASSWORD_CHANGED");
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import com.example.usermanagement.UserChangedEvent.Change;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserExistenceFilterTests {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void shouldConfirmNegativeWithDatabaseAndLearnMissedEmail() {
+        UserExistenceFilter filter = filterOverUser(false);
+
+        UserProfile profile = filter.findByEmail("direct@domain.com", this::load);
+
+        assertThat(profile).isNotNull();
+        assertThat(loads).hasValue(1);
+        assertThat(lookups("false-negative")).isEqualTo(1);
+        assertThat(filter.mightContainEmail("Direct@Domain.com")).isTrue();
+    }
+
+    @Test
+    void shouldSkipDatabaseForNegativeWhenTrusted() {
+        UserExistenceFilter filter = filterOverUser(true);
+
+        assertThat(filter.findByEmail("nobody@domain.com", this::load)).isNull();
+        assertThat(filter.findByEmail("user@domain.com", this::load)).isNotNull();
+
+        assertThat(loads).hasValue(1);
+        assertThat(lookups("negative")).isEqualTo(1);
+        assertThat(lookups("confirmed")).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLearnKeysOfUserCreatedByAnotherWriter() {
+        UserExistenceFilter filter = filterOverUser(true);
+
+        filter.onUserChanged(new UserChangedEvent("other", Change.CREATED, true));
+
+        assertThat(filter.findByEmail("other@domain.com", this::load)).isNotNull();
+        assertThat(loads).hasValue(1);
+        assertThat(lookups("confirmed")).isEqualTo(1);
+    }
+
+    private UserExistenceFilter filterOverUser(boolean trustNegatives) {
+        UserExistenceFilter filter =
+            new UserExistenceFilter(new SingleUserStreamRepository(), 100, 0.01, trustNegatives, meterRegistry);
+        filter.rebuild();
+        return filter;
+    }
+
+    private UserProfile load(String email) {
+        loads.incrementAndGet();
+        return new UserProfile(email.substring(0, email.indexOf('@')), email);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("users.existence-filter.lookups", "result", result).count();
+    }
+
+    private static class SingleUserStreamRepository extends UserStreamRepository {
+
+        @Override
+        public void streamUsers(RowCallbackHandler rowCallbackHandler) {
+            try {
+                ResultSet row = mock(ResultSet.class);
+                when(row.getString("username")).thenReturn("user");
+                when(row.getString("email")).thenReturn("user@domain.com");
+                rowCallbackHandler.processRow(row);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public void findUser(String username, RowCallbackHandler rowCallbackHandler) {
+            try {
+                ResultSet row = mock(ResultSet.class);
+                when(row.getString("username")).thenReturn(username);
+                when(row.getString("email")).thenReturn(username + "@domain.com");
+                rowCallbackHandler.processRow(row);
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
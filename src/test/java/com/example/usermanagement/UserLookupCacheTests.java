@@ -0,0 +1,45 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class UserLookupCacheTests {
+
+    private final UserLookupCache userLookupCache =
+        new UserLookupCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+    @Test
+    void shouldNotCacheProfileLoadedBeforeConcurrentEviction() throws Exception {
+        UserProfile before = new UserProfile("user", "user@domain.com");
+        UserProfile after = new UserProfile("user", "updateduser@domain.com");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        Thread reader = Thread.ofPlatform().start(() -> userLookupCache.getProfile("user", username -> {
+            loading.countDown();
+            await(release);
+            return before;
+        }));
+        assertThat(loading.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // The load is still blocked, so returning here shows invalidation does not wait for it.
+        userLookupCache.evict("user");
+        assertThat(reader.isAlive()).isTrue();
+        release.countDown();
+        reader.join(5000);
+
+        assertThat(userLookupCache.getProfile("user", username -> after)).isEqualTo(after);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,10 +1,16 @@
 package com.example.usermanagement;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.authenticated;
 import static org.springframework.security.test.web.servlet.response.SecurityMockMvcResultMatchers.unauthenticated;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
@@ -12,50 +18,121 @@ import static org.springframework.test.web.servlet.request.MockMvcRequestBuilder
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.cookie;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.redirectedUrl;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import java.util.Set;
 import java.util.UUID;
+import javax.sql.DataSource;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.api.extension.RegisterExtension;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.SpyBean;
 import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.context.annotation.Bean;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.MethodMode;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import com.example.usermanagement.UserChangedEvent.Change;
+import com.icegreen.greenmail.junit5.GreenMailExtension;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import jakarta.mail.internet.MimeMessage;
+import net.ttddyy.dsproxy.QueryCountHolder;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
 import lombok.extern.slf4j.Slf4j;
 
 @AutoConfigureMockMvc
+@AutoConfigureObservability
 @SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
 @TestPropertySource(locations = "classpath:application-test.properties")
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 @Slf4j
 class UserManagementApplicationTests {
 
+    @TestConfiguration
+    static class StatementCountingConfig {
+
+        @Bean
+        static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                        return ProxyDataSourceBuilder.create(dataSource).countQuery().build();
+                    }
+                    return bean;
+                }
+            };
+        }
+    }
+
+    @RegisterExtension
+    static GreenMailExtension greenMail = new GreenMailExtension(ServerSetupTest.SMTP)
+        .withPerMethodLifecycle(false);
+
     @Autowired
     private MockMvc mockMvc;
 
     @Autowired
     private UserManagementRepository userManagementRepository;
 
+    @Autowired
+    private PasswordResetTokenRepository passwordResetTokenRepository;
+
     @Autowired
     PasswordEncoder passwordEncoder;
 
     @Autowired
     TestRestTemplate restTemplate;
 
+    @Autowired
+    UserLookupCache userLookupCache;
+
+    @Autowired
+    ProfileResponseCache profileResponseCache;
+
+    @Autowired
+    UserChangeFeed userChangeFeed;
+
+    @Autowired
+    UserExistenceFilter userExistenceFilter;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    VerifiedCredentialCache verifiedCredentialCache;
+
     @SpyBean
     PasswordResetService passwordResetService;
 
     @BeforeEach
-    public void resetUserData() {
+    public void resetUserData() throws Exception {
+        passwordResetTokenRepository.deleteAll();
         userManagementRepository.deleteAll();
+        // Replay the previous test's recorded changes now rather than in the middle of this one.
+        userChangeFeed.poll();
+        userLookupCache.invalidateAll();
+        profileResponseCache.invalidateAll();
+        verifiedCredentialCache.invalidateAll();
+        greenMail.purgeEmailFromAllMailboxes();
 
         User admin = new User();
         admin.setUsername("admin");
@@ -73,6 +150,8 @@ class UserManagementApplicationTests {
 
         userManagementRepository.save(admin);
         userManagementRepository.save(user);
+        // Saved straight through JPA, so neither announced to the existence filter nor recorded.
+        userExistenceFilter.rebuild();
     }
 
     @Test
@@ -113,6 +192,147 @@ class UserManagementApplicationTests {
                 content().json(expectedJson));
     }
 
+    @Test
+    void shouldExposeLatencyHistogramsToAdminOnly() throws Exception {
+        mockMvc
+            .perform(get("/home/user/profile").with(httpBasic("user", "user-password")))
+            .andExpect(status().isOk());
+
+        mockMvc
+            .perform(get("/actuator/prometheus").with(httpBasic("user", "user-password")))
+            .andExpect(status().isForbidden());
+
+        mockMvc
+            .perform(get("/actuator/prometheus").with(httpBasic("admin", "admin-password")))
+            .andExpectAll(
+                status().isOk(),
+                content().string(containsString("http_server_requests_seconds_bucket")),
+                content().string(containsString("auth_password_matches_seconds_bucket")),
+                content().string(containsString("spring_data_repository_invocations_seconds_bucket")));
+    }
+
+    @Test
+    void shouldPageAllUsersByUsernameCursor() throws Exception {
+        mockMvc
+            .perform(
+                get("/home/admin/all-users")
+                    .param("size", "1")
+                    .with(httpBasic("admin", "admin-password")))
+            .andExpectAll(
+                status().isOk(),
+                header().string("Link", "<http://localhost/home/admin/all-users?after=admin&size=1>; rel=\"next\""),
+                content().json("""
+                    [{"username": "admin", "email": "admin@domain.com"}]
+                    """, true));
+
+        mockMvc
+            .perform(
+                get("/home/admin/all-users")
+                    .param("after", "admin")
+                    .param("size", "1")
+                    .with(httpBasic("admin", "admin-password")))
+            .andExpectAll(
+                status().isOk(),
+                header().doesNotExist("Link"),
+                content().json("""
+                    [{"username": "user", "email": "user@domain.com"}]
+                    """, true));
+    }
+
+    @Test
+    void shouldStreamAllUsersAsNdjson() throws Exception {
+        MvcResult mvcResult = mockMvc
+            .perform(
+                get("/home/admin/all-users")
+                    .accept(MediaType.APPLICATION_NDJSON)
+                    .with(httpBasic("admin", "admin-password")))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        mockMvc
+            .perform(asyncDispatch(mvcResult))
+            .andExpectAll(
+                status().isOk(),
+                content().contentType(MediaType.APPLICATION_NDJSON),
+                content().string("""
+                    {"username":"admin","email":"admin@domain.com"}
+                    {"username":"user","email":"user@domain.com"}
+                    """));
+    }
+
+    @Test
+    void shouldImportUsersAndReportRejectedRows() throws Exception {
+        String preHashed = passwordEncoder.encode("hashed-password");
+        String inputNdjson = """
+            {"username": "imported", "password": "imported-password", "email": "imported@domain.com"}
+            {"username": "preHashed", "passwordHash": "%s", "roles": "ADMIN;USER"}
+            {"username": "user", "password": "user-password"}
+            {"username": "noPassword"}
+            """.formatted(preHashed);
+
+        mockMvc
+            .perform(
+                post("/home/admin/users/import")
+                    .with(httpBasic("admin", "admin-password"))
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_NDJSON)
+                    .content(inputNdjson))
+            .andExpectAll(
+                status().isOk(),
+                content().json("""
+                    {
+                        "imported": 2,
+                        "failed": 2,
+                        "errors": [
+                            {"line": 4, "username": "noPassword", "message": "Password not provided."},
+                            {"line": 3, "username": "user", "message": "Username already exists."}
+                        ]
+                    }
+                    """));
+
+        mockMvc
+            .perform(get("/home/imported/profile").with(httpBasic("imported", "imported-password")))
+            .andExpect(status().isOk());
+
+        mockMvc
+            .perform(get("/home/admin/all-users").with(httpBasic("preHashed", "hashed-password")))
+            .andExpect(status().isOk());
+
+        String inputCsv = """
+            username,password,email
+            csvUser,csv-password,csv@domain.com
+            quotedUser,"quoted,""password",quoted@domain.com
+            shortRow,short-password
+            """;
+
+        mockMvc
+            .perform(
+                post("/home/admin/users/import")
+                    .with(httpBasic("admin", "admin-password"))
+                    .with(csrf())
+                    .contentType("text/csv")
+                    .content(inputCsv))
+            .andExpectAll(
+                status().isOk(),
+                content().json("""
+                    {
+                        "imported": 2,
+                        "failed": 1,
+                        "errors": [
+                            {"line": 4, "message": "Malformed row: Not enough column values: expected 3, found 2"}
+                        ]
+                    }
+                    """));
+
+        mockMvc
+            .perform(get("/home/quotedUser/profile").with(httpBasic("quotedUser", "quoted,\"password")))
+            .andExpectAll(
+                status().isOk(),
+                content().json("""
+                    {"username": "quotedUser", "email": "quoted@domain.com"}
+                    """));
+    }
+
     @Test
     void shouldGetOkForAccesingOwnResource() throws Exception {
         String expectedJson = """
@@ -127,6 +347,66 @@ class UserManagementApplicationTests {
 
     }
 
+    @Test
+    void shouldServeRepeatedProfileRequestsFromCache() throws Exception {
+        long userDetailsHits = userLookupCache.userDetailsStats().hitCount();
+        long responseHits = profileResponseCache.stats().hitCount();
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc
+                .perform(get("/home/user/profile").with(httpBasic("user", "user-password")))
+                .andExpect(status().isOk());
+        }
+
+        assertThat(userLookupCache.userDetailsStats().hitCount()).isEqualTo(userDetailsHits + 1);
+        assertThat(profileResponseCache.stats().hitCount()).isEqualTo(responseHits + 1);
+    }
+
+    @Test
+    void shouldAnswerConditionalProfileRequestWithNotModified() throws Exception {
+        String eTag = mockMvc
+            .perform(get("/home/user/profile").with(httpBasic("user", "user-password")))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+        assertThat(eTag).isNotBlank();
+
+        QueryCountHolder.clear();
+
+        mockMvc
+            .perform(get("/home/user/profile").header("If-None-Match", eTag).with(httpBasic("user", "user-password")))
+            .andExpectAll(
+                status().isNotModified(),
+                header().string("ETag", eTag),
+                content().bytes(new byte[0]));
+
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isZero();
+
+        mockMvc
+            .perform(
+                patch("/home/user/update")
+                    .with(httpBasic("user", "user-password"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"email": "updatedUser@domain.com"}
+                        """)
+                    .with(csrf()))
+            .andExpect(status().isOk());
+
+        String updatedETag = mockMvc
+            .perform(get("/home/user/profile").header("If-None-Match", eTag).with(httpBasic("user", "user-password")))
+            .andExpectAll(
+                status().isOk(),
+                content().json("""
+                    {"username": "user", "email": "updateduser@domain.com"}
+                    """))
+            .andReturn()
+            .getResponse()
+            .getHeader("ETag");
+        assertThat(updatedETag).isNotEqualTo(eTag);
+    }
+
     @Test
     void shouldGetNotFoundForAccessingOtherUserEndpoint() throws Exception {
 
@@ -168,7 +448,7 @@ class UserManagementApplicationTests {
     void shouldGetCreatedAndRedirectForCreatingNewUser() throws Exception {
 
         String expectedJson = """
-                {"username": "newUser", "email": "newUser@domain.com"}
+                {"username": "newUser", "email": "newuser@domain.com"}
             """;
         String inputJson = """
                 {
@@ -201,6 +481,146 @@ class UserManagementApplicationTests {
         resetUserData();
     }
 
+    @Test
+    void shouldRejectSignUpWithEmailTakenInDifferentCase() throws Exception {
+        mockMvc
+            .perform(
+                post("/home/sign-up")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"username": "newUser", "email": "User@Domain.com", "password": "newUser-password"}
+                        """)
+                    .with(csrf()))
+            .andExpectAll(
+                status().isBadRequest(),
+                content().string("Email already in use."));
+
+        assertThat(userManagementRepository.findByUsername("newUser")).isNull();
+    }
+
+    @Test
+    void shouldSignUpWithOneInsertPerTable() throws Exception {
+        QueryCountHolder.clear();
+
+        mockMvc
+            .perform(
+                post("/home/sign-up")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"username": "newUser", "email": "newUser@domain.com", "password": "newUser-password"}
+                        """)
+                    .with(csrf()))
+            .andExpect(status().isCreated());
+
+        // users, authorities and user_changes
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(3);
+        assertThat(QueryCountHolder.getGrandTotal().getSelect()).isZero();
+
+        QueryCountHolder.clear();
+
+        mockMvc
+            .perform(
+                post("/home/sign-up")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"username": "newUser", "password": "other-password"}
+                        """)
+                    .with(csrf()))
+            .andExpect(status().isBadRequest());
+
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldUpdateProfileWithSingleStatement() throws Exception {
+        MockHttpSession session = (MockHttpSession) mockMvc
+            .perform(post("/home/login").with(httpBasic("user", "user-password")).with(csrf()))
+            .andReturn()
+            .getRequest()
+            .getSession();
+
+        QueryCountHolder.clear();
+
+        mockMvc
+            .perform(
+                patch("/home/user/update")
+                    .session(session)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"password": "updatedPassword", "email": "updatedUser@domain.com"}
+                        """)
+                    .with(csrf()))
+            .andExpect(status().isOk());
+
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(2);
+        assertThat(QueryCountHolder.getGrandTotal().getUpdate()).isEqualTo(1);
+        assertThat(QueryCountHolder.getGrandTotal().getInsert()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldClearEmail() throws Exception {
+        mockMvc
+            .perform(get("/home/user/profile").with(httpBasic("user", "user-password")))
+            .andExpect(jsonPath("$.email").value("user@domain.com"));
+
+        mockMvc
+            .perform(
+                patch("/home/user/update")
+                    .with(httpBasic("user", "user-password"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"email": null}
+                        """)
+                    .with(csrf()))
+            .andExpectAll(
+                status().isOk(),
+                jsonPath("$.email").doesNotExist());
+
+        assertThat(userManagementRepository.findByUsername("user").getEmail()).isNull();
+        mockMvc
+            .perform(get("/home/user/profile").with(httpBasic("user", "user-password")))
+            .andExpectAll(
+                status().isOk(),
+                jsonPath("$.email").doesNotExist());
+    }
+
+    @Test
+    void shouldApplyRoleChangesAsDiff() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            User user = userManagementRepository.findByUsername("admin");
+            user.getAuthorities().size();
+            QueryCountHolder.clear();
+            user.setRoles("ADMIN");
+        });
+
+        assertThat(QueryCountHolder.getGrandTotal().getDelete()).isEqualTo(1);
+        assertThat(QueryCountHolder.getGrandTotal().getInsert()).isZero();
+        Set<String> authorities = transaction.execute(
+            status -> Set.copyOf(userManagementRepository.findByUsername("admin").getAuthorities()));
+        assertThat(authorities).containsExactly("ROLE_ADMIN");
+    }
+
+    @Test
+    void shouldDeleteAccountWithoutLoadingIt() throws Exception {
+        MockHttpSession session = (MockHttpSession) mockMvc
+            .perform(post("/home/login").with(httpBasic("user", "user-password")).with(csrf()))
+            .andReturn()
+            .getRequest()
+            .getSession();
+
+        QueryCountHolder.clear();
+
+        mockMvc
+            .perform(delete("/home/user/delete").session(session).with(csrf()))
+            .andExpect(status().isNoContent());
+
+        // three deletes and the user_changes insert
+        assertThat(QueryCountHolder.getGrandTotal().getTotal()).isEqualTo(4);
+        assertThat(QueryCountHolder.getGrandTotal().getSelect()).isZero();
+    }
+
     @Test
     void shouldGetOkForFetchingLogInEndpoint() throws Exception {
         mockMvc
@@ -290,7 +710,7 @@ class UserManagementApplicationTests {
         MockHttpSession session = (MockHttpSession) mvcResult.getRequest().getSession();
 
         String expectedJson = """
-                {"username": "user", "email": "updatedUser@domain.com"}
+                {"username": "user", "email": "updateduser@domain.com"}
             """;
 
         String inputJson = """
@@ -322,6 +742,84 @@ class UserManagementApplicationTests {
 
     }
 
+    @Test
+    void shouldRejectPreviouslyVerifiedPasswordAfterUpdate() throws Exception {
+        mockMvc
+            .perform(get("/home/user/profile").with(httpBasic("user", "user-password")))
+            .andExpect(status().isOk());
+
+        mockMvc
+            .perform(
+                patch("/home/user/update")
+                    .with(httpBasic("user", "user-password"))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"password": "updatedPassword"}
+                        """)
+                    .with(csrf()))
+            .andExpect(status().isOk());
+
+        mockMvc
+            .perform(get("/home/user/profile").with(httpBasic("user", "user-password")))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldAuthenticateAndFindUserWrittenByAnotherInstance() throws Exception {
+        // Never announced to this instance's existence filter, only recorded in the change feed.
+        User direct = new User();
+        direct.setUsername("direct");
+        direct.setPassword(passwordEncoder.encode("direct-password"));
+        direct.setEmail("direct@domain.com");
+        direct.setEnabled(true);
+        direct.setRoles("USER");
+        userManagementRepository.save(direct);
+        userChangeFeed.record("direct", Change.CREATED);
+
+        mockMvc
+            .perform(get("/home/direct/profile").with(httpBasic("direct", "direct-password")))
+            .andExpect(status().isOk());
+
+        userChangeFeed.poll();
+
+        mockMvc
+            .perform(
+                post("/home/forget-password")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"email": "direct@domain.com"}
+                        """))
+            .andExpect(status().isOk());
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        assertThat(greenMail.getReceivedMessages()[0].getAllRecipients()[0].toString())
+            .isEqualTo("direct@domain.com");
+    }
+
+    @Test
+    void shouldRehashOutdatedPasswordOnLogin() throws Exception {
+        User legacy = new User();
+        legacy.setUsername("legacy");
+        legacy.setPassword(new BCryptPasswordEncoder(4).encode("legacy-password"));
+        legacy.setEmail("legacy@domain.com");
+        legacy.setEnabled(true);
+        legacy.setRoles("USER");
+        userManagementRepository.save(legacy);
+
+        mockMvc
+            .perform(get("/home/legacy/profile").with(httpBasic("legacy", "legacy-password")))
+            .andExpect(status().isOk());
+
+        String rehashed = userManagementRepository.findByUsername("legacy").getPassword();
+        assertThat(rehashed).startsWith("{bcrypt}");
+        assertThat(passwordEncoder.upgradeEncoding(rehashed)).isFalse();
+
+        mockMvc
+            .perform(get("/home/legacy/profile").with(httpBasic("legacy", "legacy-password")))
+            .andExpect(status().isOk());
+    }
+
     @Test
     void shouldDeleteUserProfileAndReturnNoContent() throws Exception {
 
@@ -350,7 +848,9 @@ class UserManagementApplicationTests {
 
     }
 
+    // A fresh context starts with no coalesced reset requests and full rate-limit buckets.
     @Test
+    @DirtiesContext(methodMode = MethodMode.BEFORE_METHOD)
     void shouldResetPasswordAfterRequestingForgetPassword() throws Exception {
 
         User user = userManagementRepository.findByEmail("user@domain.com");
@@ -370,6 +870,11 @@ class UserManagementApplicationTests {
             .andExpectAll(
                 status().isOk());
 
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        MimeMessage resetEmail = greenMail.getReceivedMessages()[0];
+        assertThat(resetEmail.getAllRecipients()[0].toString()).isEqualTo("user@domain.com");
+        assertThat((String) resetEmail.getContent()).contains(testToken.getTokenValue());
+
         inputJson = """
             {"password": "updatedPassword"}
             """;
@@ -396,4 +901,89 @@ class UserManagementApplicationTests {
 
     }
 
+    @Test
+    @DirtiesContext(methodMode = MethodMode.BEFORE_METHOD)
+    void shouldRejectResetTokenIssuedBeforeAccountWasDeleted() throws Exception {
+        User user = userManagementRepository.findByEmail("user@domain.com");
+        PasswordResetToken testToken = new PasswordResetToken(UUID.randomUUID().toString(), user);
+        when(passwordResetService.generateToken(user)).thenReturn(testToken);
+
+        mockMvc
+            .perform(
+                post("/home/forget-password")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"email": "user@domain.com"}
+                        """))
+            .andExpect(status().isOk());
+
+        mockMvc
+            .perform(delete("/home/user/delete").with(httpBasic("user", "user-password")).with(csrf()))
+            .andExpect(status().isNoContent());
+
+        mockMvc
+            .perform(
+                post("/home/sign-up")
+                    .with(csrf())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"username": "user", "email": "newowner@domain.com", "password": "newOwner-password"}
+                        """))
+            .andExpect(status().isCreated());
+
+        mockMvc
+            .perform(
+                post("/home/reset-password")
+                    .param("token", testToken.getTokenValue())
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content("""
+                        {"password": "takenOverPassword"}
+                        """)
+                    .with(csrf()))
+            .andExpect(status().isBadRequest());
+
+        mockMvc
+            .perform(get("/home/user/profile").with(httpBasic("user", "newOwner-password")))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = MethodMode.BEFORE_METHOD)
+    void shouldCoalesceDuplicateForgetPasswordRequests() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            mockMvc
+                .perform(
+                    post("/home/forget-password")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                            {"email": "user@domain.com"}
+                            """))
+                .andExpect(status().isOk());
+        }
+
+        assertThat(greenMail.waitForIncomingEmail(5000, 1)).isTrue();
+        assertThat(greenMail.waitForIncomingEmail(500, 2)).isFalse();
+        verify(passwordResetService, times(1)).generateToken(any());
+    }
+
+    @Test
+    @DirtiesContext(methodMode = MethodMode.BEFORE_METHOD)
+    void shouldRateLimitForgetPasswordPerTargetEmail() throws Exception {
+        String inputJson = """
+            {"email": "nobody@domain.com"}
+            """;
+
+        for (int i = 0; i < 5; i++) {
+            mockMvc
+                .perform(post("/home/forget-password").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(inputJson))
+                .andExpect(status().isBadRequest());
+        }
+
+        mockMvc
+            .perform(post("/home/forget-password").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(inputJson))
+            .andExpect(status().isTooManyRequests());
+    }
+
 }
@@ -0,0 +1,48 @@
+package com.example.usermanagement;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class VerifiedCredentialCacheTests {
+
+    private final VerifiedCredentialCache verifiedCredentialCache =
+        new VerifiedCredentialCache(100, Duration.ofMinutes(5), new SimpleMeterRegistry());
+
+    @Test
+    void shouldRememberCredentialCheckedBeforeAnyInvalidation() {
+        long generation = verifiedCredentialCache.generation("user");
+        verifiedCredentialCache.remember("user", "password", generation);
+
+        assertThat(verifiedCredentialCache.matches("user", "password")).isTrue();
+        assertThat(verifiedCredentialCache.matches("user", "other")).isFalse();
+    }
+
+    @Test
+    void shouldNotRememberCredentialCheckedBeforeConcurrentInvalidation() {
+        long generation = verifiedCredentialCache.generation("user");
+        verifiedCredentialCache.invalidate("user");
+        verifiedCredentialCache.remember("user", "oldpassword", generation);
+
+        assertThat(verifiedCredentialCache.matches("user", "oldpassword")).isFalse();
+    }
+
+    @Test
+    void shouldNotRememberCredentialCheckedBeforeInvalidateAll() {
+        long generation = verifiedCredentialCache.generation("user");
+        verifiedCredentialCache.invalidateAll();
+        verifiedCredentialCache.remember("user", "oldpassword", generation);
+
+        assertThat(verifiedCredentialCache.matches("user", "oldpassword")).isFalse();
+    }
+
+    @Test
+    void shouldOnlyDiscardChecksForTheInvalidatedUser() {
+        long generation = verifiedCredentialCache.generation("user");
+        verifiedCredentialCache.invalidate("admin");
+        verifiedCredentialCache.remember("user", "password", generation);
+
+        assertThat(verifiedCredentialCache.matches("user", "password")).isTrue();
+    }
+}
@@ -0,0 +1,7 @@
+-- What Hibernate's ddl-auto=update created for the entities before the schema moved to Flyway.
+create table authorities (id bigint generated by default as identity, authority varchar(128), username varchar(255), primary key (id), constraint unique_username_authority unique (username, authority));
+create table password_reset_token (expiry_date timestamp(6), id bigint not null, token_value varchar(255), user_username varchar(255) unique, primary key (id));
+create table users (enabled boolean not null, email varchar(255), password varchar(255) not null, username varchar(255) not null, primary key (username));
+create sequence password_reset_token_seq start with 1 increment by 50;
+alter table if exists authorities add constraint FKhjuy9y4fd8v5m3klig05ktofg foreign key (username) references users;
+alter table if exists password_reset_token add constraint FK5lwtbncug84d4ero33v3cfxvl foreign key (user_username) references users;